@@ -0,0 +1,137 @@
+package com.openclassrooms.chatop.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result with a recorded baseline and fails when a benchmark regressed.
+ * A benchmark regresses when its score or its allocation per operation worsens by more than the
+ * tolerance, and the score change is also larger than the combined error margins of both runs.
+ * <p>
+ * Usage: {@code BenchmarkBaselineComparator <baseline.json> <result.json> [tolerance]}
+ */
+public final class BenchmarkBaselineComparator {
+
+    /**
+     * Secondary metric holding the bytes allocated per operation, reported by the GC profiler.
+     */
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    /**
+     * Allocation changes below this many bytes per operation are ignored.
+     */
+    private static final double ALLOCATION_NOISE_BYTES = 64;
+
+    private BenchmarkBaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkBaselineComparator <baseline.json> <result.json> [tolerance]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path resultPath = Path.of(args[1]);
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("No baseline at " + baselinePath + ": nothing to compare.");
+            System.out.println("To record one, copy " + resultPath + " to " + baselinePath + ".");
+            return;
+        }
+
+        Map<String, Score> baseline = read(baselinePath);
+        Map<String, Score> current = read(resultPath);
+
+        int regressions = 0;
+        System.out.printf("%-100s %14s %14s %9s %12s %12s%n", "Benchmark", "Baseline", "Current", "Change", "B/op before", "B/op after");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-100s %14s %14.3f %9s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+
+            // Positive change means worse, whatever the benchmark mode
+            double change = (now.score() - before.score()) / before.score() * (now.higherIsBetter() ? -1 : 1);
+            boolean slower = change > tolerance
+                    && Math.abs(now.score() - before.score()) > before.error() + now.error();
+            boolean allocatesMore = !Double.isNaN(before.allocation()) && !Double.isNaN(now.allocation())
+                    && now.allocation() - before.allocation() > Math.max(ALLOCATION_NOISE_BYTES, before.allocation() * tolerance);
+            String verdict = slower || allocatesMore ? "  REGRESSION" : "";
+            if (!verdict.isEmpty()) {
+                regressions++;
+            }
+            System.out.printf("%-100s %14.3f %14.3f %+8.1f%% %12.0f %12.0f%s%n",
+                    entry.getKey(), before.score(), now.score(), change * 100,
+                    before.allocation(), now.allocation(), verdict);
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed beyond " + Math.round(tolerance * 100) + "%.");
+            System.exit(1);
+        }
+        System.out.println("No regression beyond " + Math.round(tolerance * 100) + "%.");
+    }
+
+    /**
+     * Reads the primary score and allocation rate of every benchmark of a JMH JSON result,
+     * keyed by benchmark name and parameters.
+     *
+     * @param path The JSON result file.
+     * @return The scores, in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            if (!params.isEmpty()) {
+                key.append(params);
+            }
+            key.append(" t=").append(run.path("threads").asInt(1));
+
+            JsonNode primary = run.path("primaryMetric");
+            double allocation = Double.NaN;
+            var secondaries = run.path("secondaryMetrics").fields();
+            while (secondaries.hasNext()) {
+                var secondary = secondaries.next();
+                if (secondary.getKey().endsWith(ALLOCATION_METRIC)) {
+                    allocation = secondary.getValue().path("score").asDouble();
+                }
+            }
+            scores.put(key.toString(), new Score(
+                    primary.path("score").asDouble(),
+                    errorOf(primary),
+                    "thrpt".equals(run.path("mode").asText()),
+                    allocation));
+        }
+        return scores;
+    }
+
+    private static double errorOf(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * Result of one benchmark.
+     *
+     * @param score Primary score.
+     * @param error Error margin of the score (99.9% confidence interval half-width).
+     * @param higherIsBetter Whether a higher score is better (throughput mode).
+     * @param allocation Bytes allocated per operation, or NaN without the GC profiler.
+     */
+    private record Score(double score, double error, boolean higherIsBetter, double allocation) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.chatop.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.mapper.RentalMapper;
+import com.openclassrooms.chatop.model.Rental;
+
+/**
+ * Cost of serializing a rental list to JSON, as done for the rental listing response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalListResponseSerializationBenchmark {
+
+    /**
+     * Number of rentals in the response.
+     */
+    @Param({"20", "1000", "10000"})
+    public int catalogueSize;
+
+    private ObjectMapper objectMapper;
+    private RentalListResponse response;
+
+    @Setup
+    public void setUp() {
+        // Configured like the application's ObjectMapper (Java time module, no timestamps)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Rental> rentals = new ArrayList<>(catalogueSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < catalogueSize; i++) {
+            rentals.add(Rental.builder()
+                    .id((long) i)
+                    .name("Rental " + i)
+                    .surface(20 + i % 200)
+                    .price(300 + i % 2000)
+                    .picture("http://localhost:3001/uploads/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg")
+                    .description("A cosy place close to the city centre, fully furnished and recently renovated.")
+                    .ownerId((long) (i % 100))
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now.minusMinutes(i))
+                    .build());
+        }
+        response = new RentalListResponse(new RentalMapper().toResponseList(rentals));
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.chatop.mapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.chatop.dto.RentalResponse;
+import com.openclassrooms.chatop.model.Rental;
+
+/**
+ * Cost of mapping a page or a whole catalogue of rentals to their DTOs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalMapperBenchmark {
+
+    /**
+     * Number of rentals mapped at once.
+     */
+    @Param({"20", "1000", "10000"})
+    public int catalogueSize;
+
+    private RentalMapper rentalMapper;
+    private List<Rental> rentals;
+
+    @Setup
+    public void setUp() {
+        rentalMapper = new RentalMapper();
+        rentals = new ArrayList<>(catalogueSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < catalogueSize; i++) {
+            rentals.add(Rental.builder()
+                    .id((long) i)
+                    .name("Rental " + i)
+                    .surface(20 + i % 200)
+                    .price(300 + i % 2000)
+                    .picture("http://localhost:3001/uploads/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg")
+                    .description("A cosy place close to the city centre, fully furnished and recently renovated.")
+                    .ownerId((long) (i % 100))
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now.minusMinutes(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<RentalResponse> toResponseList() {
+        return rentalMapper.toResponseList(rentals);
+    }
+}
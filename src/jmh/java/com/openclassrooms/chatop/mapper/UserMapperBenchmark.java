@@ -0,0 +1,55 @@
+package com.openclassrooms.chatop.mapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.openclassrooms.chatop.dto.RegisterRequest;
+import com.openclassrooms.chatop.model.User;
+
+/**
+ * Cost of building a user at registration, dominated by the BCrypt hash of the password.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    /**
+     * BCrypt work factor.
+     */
+    @Param({"10", "12"})
+    public int strength;
+
+    private UserMapper userMapper;
+    private RegisterRequest request;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapper(new BCryptPasswordEncoder(strength));
+        request = RegisterRequest.builder()
+                .email("john.doe@example.com")
+                .name("John Doe")
+                .password("securePassword123")
+                .build();
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(request);
+    }
+}
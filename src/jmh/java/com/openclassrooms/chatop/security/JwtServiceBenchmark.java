@@ -0,0 +1,107 @@
+package com.openclassrooms.chatop.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.chatop.config.JwtProperties;
+import com.openclassrooms.chatop.model.Role;
+import com.openclassrooms.chatop.model.User;
+
+/**
+ * Cost of signing and verifying JWT tokens, with and without the verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    /**
+     * Number of distinct tokens verified by the uncached benchmark.
+     */
+    private static final int DISTINCT_TOKENS = 1024;
+
+    /**
+     * Number of extra claims, which drives the token size.
+     */
+    @Param({"0", "10", "50"})
+    public int extraClaims;
+
+    private JwtService cachingJwtService;
+    private JwtService nonCachingJwtService;
+    private User user;
+    private Map<String, Object> claims;
+    private String token;
+    private String[] distinctTokens;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .email("john.doe@example.com")
+                .name("John Doe")
+                .password("unused")
+                .role(Role.USER)
+                .build();
+        claims = new HashMap<>();
+        for (int i = 0; i < extraClaims; i++) {
+            claims.put("claim" + i, "value-" + i);
+        }
+
+        cachingJwtService = new JwtService(properties(10_000), new SimpleMeterRegistry());
+        // A single-entry cache: verifying many distinct tokens almost always computes the signature
+        nonCachingJwtService = new JwtService(properties(1), new SimpleMeterRegistry());
+
+        token = cachingJwtService.generateToken(claims, user);
+        distinctTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            Map<String, Object> distinctClaims = new HashMap<>(claims);
+            distinctClaims.put("n", i);
+            distinctTokens[i] = nonCachingJwtService.generateToken(distinctClaims, user);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtService.generateToken(claims, user);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCachedToken() {
+        return cachingJwtService.verifyToken(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyUncachedToken() {
+        return nonCachingJwtService.verifyToken(distinctTokens[ThreadLocalRandom.current().nextInt(DISTINCT_TOKENS)]);
+    }
+
+    private static JwtProperties properties(long verifiedCacheMaxSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey(Base64.getEncoder().encodeToString(
+                "benchmark-secret-key-0123456789ab".getBytes(StandardCharsets.US_ASCII)));
+        properties.setExpiration(900_000);
+        properties.setVerifiedCacheMaxSize(verifiedCacheMaxSize);
+        return properties;
+    }
+}
@@ -0,0 +1,376 @@
+package com.openclassrooms.chatop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.model.Message;
+import com.openclassrooms.chatop.model.Rental;
+import com.openclassrooms.chatop.model.Role;
+import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.repository.MessageRepository;
+import com.openclassrooms.chatop.repository.RentalRepository;
+import com.openclassrooms.chatop.repository.UserRepository;
+
+/**
+ * End-to-end load test: boots the application on a random port against an embedded MySQL-mode
+ * H2 database, seeds users, rentals and messages, then lets concurrent virtual users run a weighted
+ * mix of scenarios over HTTP for a fixed duration and reports throughput and latency percentiles
+ * per endpoint. Volumes, concurrency, duration and weights come from application-loadtest.properties
+ * and can be overridden on the command line, e.g. -Dloadtest.concurrency=200.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class ChatopLoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    private static final List<String> SCENARIOS = List.of("list", "detail", "stream", "create-message", "login", "register", "upload");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${loadtest.users}")
+    private int userCount;
+
+    @Value("${loadtest.rentals}")
+    private int rentalCount;
+
+    @Value("${loadtest.messages}")
+    private int messageCount;
+
+    @Value("${loadtest.concurrency}")
+    private int concurrency;
+
+    @Value("${loadtest.duration}")
+    private long durationSeconds;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private List<Long> userIds;
+    private List<Long> rentalIds;
+    private byte[] picture;
+
+    @Test
+    void runScenarios() throws Exception {
+        seed();
+        picture = samplePicture();
+
+        int[] weights = SCENARIOS.stream()
+                .mapToInt(scenario -> environment.getProperty("loadtest.weights." + scenario, Integer.class, 0))
+                .toArray();
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+
+        try (ExecutorService virtualUsers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int userIndex = i % userIds.size();
+                virtualUsers.submit(() -> runVirtualUser(userIndex, weights, deadline));
+            }
+        }
+
+        String report = recorder.report(durationSeconds);
+        System.out.println(report);
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "loadtest-report.txt"), report);
+
+        assertThat(recorder.serverErrors()).as("requests failed with a server error").isZero();
+    }
+
+    /**
+     * Inserts the seeded volumes. Every seeded user shares one password hash, so seeding does not
+     * pay one BCrypt hash per user.
+     */
+    private void seed() {
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(User.builder()
+                    .email(seededEmail(i))
+                    .name("User " + i)
+                    .password(passwordHash)
+                    .role(Role.USER)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        userIds = userRepository.saveAll(users).stream().map(User::getId).toList();
+
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<Rental> rentals = new ArrayList<>(rentalCount);
+        for (int i = 0; i < rentalCount; i++) {
+            rentals.add(Rental.builder()
+                    .name("Rental " + i)
+                    .surface(15 + i % 250)
+                    .price(250 + i % 3000)
+                    .description("A cosy place close to the city centre, fully furnished and recently renovated.")
+                    .ownerId(userIds.get(i % userIds.size()))
+                    .createdAt(timestamp.minusMinutes(i))
+                    .updatedAt(timestamp.minusMinutes(i))
+                    .build());
+        }
+        rentalIds = rentalRepository.saveAll(rentals).stream().map(Rental::getId).toList();
+
+        List<Message> messages = new ArrayList<>(1000);
+        for (int i = 0; i < messageCount; i++) {
+            messages.add(Message.builder()
+                    .message("Is the place still available in " + (1 + i % 12) + " months?")
+                    .user(User.builder().id(userIds.get(i % userIds.size())).build())
+                    .rental(Rental.builder().id(rentalIds.get(i % rentalIds.size())).build())
+                    .createdAt(timestamp.minusSeconds(i))
+                    .updatedAt(timestamp.minusSeconds(i))
+                    .build());
+            if (messages.size() == 1000 || i == messageCount - 1) {
+                messageRepository.insertAll(messages);
+                messages.clear();
+            }
+        }
+    }
+
+    /**
+     * Logs in, then runs randomly picked scenarios until the deadline.
+     *
+     * @param userIndex Index of the seeded user this virtual user acts as.
+     * @param weights Weight of each scenario.
+     * @param deadline End of the run, in System.nanoTime() units.
+     */
+    private void runVirtualUser(int userIndex, int[] weights, long deadline) {
+        Session session = new Session(userIds.get(userIndex), seededEmail(userIndex));
+        login(session);
+        int totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+
+        while (System.nanoTime() < deadline) {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            int scenario = 0;
+            while (pick >= weights[scenario]) {
+                pick -= weights[scenario];
+                scenario++;
+            }
+            switch (SCENARIOS.get(scenario)) {
+                case "list" -> listRentals(session);
+                case "detail" -> getRental(session);
+                case "stream" -> streamRentals(session);
+                case "create-message" -> createMessage(session);
+                case "login" -> login(session);
+                case "register" -> register();
+                case "upload" -> uploadRental(session);
+                default -> throw new IllegalStateException("Unknown scenario");
+            }
+        }
+    }
+
+    private void login(Session session) {
+        HttpResponse<String> response = send("login", json("/api/auth/login", null,
+                Map.of("email", session.email, "password", PASSWORD)));
+        if (response != null && response.statusCode() == 200) {
+            session.token = readField(response.body(), "token");
+        }
+    }
+
+    private void register() {
+        send("register", json("/api/auth/register", null, Map.of(
+                "email", "loadtest-" + UUID.randomUUID() + "@example.com",
+                "name", "Load Test",
+                "password", PASSWORD)));
+    }
+
+    private void listRentals(Session session) {
+        int minPrice = ThreadLocalRandom.current().nextInt(30) * 100;
+        send("list", request("/api/rentals?limit=20&min_price=" + minPrice, session.token).GET().build());
+    }
+
+    private void getRental(Session session) {
+        send("detail", request("/api/rentals/" + randomRentalId(), session.token).GET().build());
+    }
+
+    private void streamRentals(Session session) {
+        send("stream", request("/api/rentals/stream", session.token).GET().build());
+    }
+
+    private void createMessage(Session session) {
+        send("create-message", json("/api/messages", session.token, Map.of(
+                "message", "Hello, is it still available?",
+                "user_id", session.userId,
+                "rental_id", randomRentalId())));
+    }
+
+    private void uploadRental(Session session) {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, boundary, "name", "Uploaded rental");
+        writeField(body, boundary, "surface", "42");
+        writeField(body, boundary, "price", "900");
+        writeField(body, boundary, "description", "Created by the load test.");
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"picture\"; filename=\"picture.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(picture);
+        // Bytes after the end of the JPEG are ignored by decoders but change the content hash,
+        // so every upload is stored and processed instead of being deduplicated
+        byte[] suffix = new byte[16];
+        ThreadLocalRandom.current().nextBytes(suffix);
+        body.writeBytes(suffix);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        send("upload", request("/api/rentals", session.token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+    }
+
+    /**
+     * Sends a request and records its latency under the given endpoint name.
+     *
+     * @return The response, or null if the request failed without a response.
+     */
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode());
+            return response;
+        } catch (IOException ex) {
+            recorder.record(endpoint, System.nanoTime() - start, 0);
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest json(String path, String token, Map<String, Object> body) {
+        try {
+            return request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String readField(String body, String field) {
+        try {
+            JsonNode node = objectMapper.readTree(body).get(field);
+            return node != null ? node.asText() : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private long randomRentalId() {
+        return rentalIds.get(ThreadLocalRandom.current().nextInt(rentalIds.size()));
+    }
+
+    private static String seededEmail(int index) {
+        return "user" + index + "@loadtest.local";
+    }
+
+    private static void writeField(ByteArrayOutputStream body, String boundary, String name, String value) {
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a 1600x1200 JPEG picture, large enough for every picture variant to be generated.
+     */
+    private static byte[] samplePicture() throws IOException {
+        BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            for (int y = 0; y < 1200; y += 40) {
+                graphics.setColor(new Color(y % 256, (y * 3) % 256, (y * 7) % 256));
+                graphics.fillRect(0, y, 1600, 40);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", output);
+        return output.toByteArray();
+    }
+
+    /**
+     * State of one virtual user.
+     */
+    private static final class Session {
+        private final Long userId;
+        private final String email;
+        private String token;
+
+        Session(Long userId, String email) {
+            this.userId = userId;
+            this.email = email;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.openclassrooms.chatop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe record of the latency and status of every request, per endpoint.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param endpoint Name of the endpoint.
+     * @param nanos Latency of the request.
+     * @param status HTTP status, or 0 if the request failed without a response.
+     */
+    void record(String endpoint, long nanos, int status) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latencies.add(nanos);
+        if (status == 0 || status >= 400) {
+            stats.errors.incrementAndGet();
+        }
+        if (status == 0 || status >= 500) {
+            stats.serverErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of requests that failed with a 5xx status or without a response.
+     *
+     * @return The number of server errors.
+     */
+    long serverErrors() {
+        return endpoints.values().stream().mapToLong(stats -> stats.serverErrors.get()).sum();
+    }
+
+    /**
+     * Builds the report: throughput and latency percentiles per endpoint.
+     *
+     * @param durationSeconds Duration of the run.
+     * @return The report, one line per endpoint.
+     */
+    String report(long durationSeconds) {
+        StringBuilder report = new StringBuilder(String.format("%-16s %9s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "Max ms"));
+        long total = 0;
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            List<Long> latencies = new ArrayList<>(entry.getValue().latencies);
+            Collections.sort(latencies);
+            total += latencies.size();
+            report.append(String.format("%-16s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    latencies.size(),
+                    entry.getValue().errors.get(),
+                    (double) latencies.size() / durationSeconds,
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.90),
+                    percentile(latencies, 0.99),
+                    percentile(latencies, 1.0)));
+        }
+        report.append(String.format("%-16s %9d %8s %9.1f%n", "total", total, "", (double) total / durationSeconds));
+        return report.toString();
+    }
+
+    private static double percentile(List<Long> sortedLatencies, double percentile) {
+        if (sortedLatencies.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.size()) - 1;
+        long nanos = sortedLatencies.get(Math.max(0, index));
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Endpoint {
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.PropertySource;
 
 @SpringBootApplication
-@PropertySource("file:.env")
+@PropertySource(value = "file:.env", ignoreResourceNotFound = true)
 public class ChatopApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,62 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration of the bounded, expiring in-process caches backed by Caffeine.
+ */
+@Configuration
+@EnableCaching
+@RequiredArgsConstructor
+public class CacheConfig {
+
+    /**
+     * Users keyed by email.
+     */
+    public static final String USERS_BY_EMAIL = "users-by-email";
+
+    /**
+     * Users keyed by ID.
+     */
+    public static final String USERS_BY_ID = "users-by-id";
+
+    /**
+     * Mapped rental details keyed by rental ID.
+     */
+    public static final String RENTALS = "rentals";
+
+    /**
+     * Mapped rental listing pages keyed by filters, cursor and size.
+     */
+    public static final String RENTAL_PAGES = "rental-pages";
+
+    private final CacheProperties cacheProperties;
+
+    /**
+     * Creates the cache manager. Every cache records hit, miss and eviction statistics.
+     * Falls back to a no-op manager when caching is disabled.
+     *
+     * @return CacheManager instance.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        if (!cacheProperties.isEnabled()) {
+            return new NoOpCacheManager();
+        }
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.from(cacheProperties.getDefaultSpec()).recordStats());
+        cacheProperties.getSpecs().forEach((name, spec) ->
+                cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build()));
+        return cacheManager;
+    }
+}
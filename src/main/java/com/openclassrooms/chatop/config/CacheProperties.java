@@ -0,0 +1,33 @@
+package com.openclassrooms.chatop.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the in-process caches.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.cache")
+@Data
+public class CacheProperties {
+
+    /**
+     * Whether caching is enabled. When disabled, every lookup goes to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Caffeine specification used for caches without a dedicated entry in {@link #specs}.
+     */
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m";
+
+    /**
+     * Caffeine specification per cache name (size bound, expiration).
+     */
+    private Map<String, String> specs = new HashMap<>();
+}
@@ -19,12 +19,67 @@ public class JwtProperties {
     private String secretKey;
 
     /**
-     * Token expiration time in milliseconds.
+     * Access token expiration time in milliseconds.
      */
     private long expiration;
 
     /**
-     * Refresh token expiration time in milliseconds.
+     * Refresh token settings.
      */
-    private long refreshExpiration;
+    private RefreshToken refreshToken = new RefreshToken();
+
+    /**
+     * Maximum number of verified tokens kept in memory to skip signature checks on repeat requests.
+     */
+    private long verifiedCacheMaxSize = 10_000;
+
+    /**
+     * Maximum time in milliseconds a verified token stays cached (never beyond the token expiration).
+     */
+    private long verifiedCacheTtl = 300_000;
+
+    /**
+     * Where the authenticated principal is rebuilt from on each request.
+     */
+    private PrincipalSource principalSource = PrincipalSource.CLAIMS;
+
+    /**
+     * Whether the token version claim is checked against the user account to honor revocations.
+     * Only used with {@link PrincipalSource#CLAIMS}, where the account comes from the user cache;
+     * with {@link PrincipalSource#DATABASE} the version is always checked.
+     */
+    private boolean revocationCheck = true;
+
+    /**
+     * Settings of the refresh tokens, exchanged for new access tokens without the password.
+     */
+    @Data
+    public static class RefreshToken {
+
+        /**
+         * Refresh token expiration time in milliseconds.
+         */
+        private long expiration = 604_800_000;
+
+        /**
+         * Interval between two deletions of the expired refresh tokens, in milliseconds.
+         */
+        private long sweepInterval = 3_600_000;
+    }
+
+    /**
+     * Sources the authenticated principal can be built from.
+     */
+    public enum PrincipalSource {
+
+        /**
+         * Build the principal from the verified token claims, without a database lookup.
+         */
+        CLAIMS,
+
+        /**
+         * Load the full user from the database on every request.
+         */
+        DATABASE
+    }
 }
\ No newline at end of file
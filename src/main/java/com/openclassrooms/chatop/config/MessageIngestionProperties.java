@@ -0,0 +1,57 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the ingestion of new messages.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.messages.ingestion")
+@Data
+public class MessageIngestionProperties {
+
+    /**
+     * How a sent message is written.
+     */
+    private Mode mode = Mode.SYNC;
+
+    /**
+     * Maximum number of messages waiting to be written. Requests are rejected with 503 when full.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of messages written by one multi-row INSERT.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Maximum time a request waits for its message to be written in wait-for-flush mode, in milliseconds.
+     */
+    private long flushTimeout = 5_000;
+
+    /**
+     * Ingestion modes, from the most to the least durable acknowledgement.
+     */
+    public enum Mode {
+        /**
+         * The message is inserted by the request thread before responding.
+         */
+        SYNC,
+
+        /**
+         * The message is queued, then the request waits until the batch holding it is committed.
+         * Concurrent requests share a single INSERT.
+         */
+        WAIT_FOR_FLUSH,
+
+        /**
+         * The message is queued and the request responds immediately.
+         * Queued messages are lost if the instance crashes, and invalid ones are only logged.
+         */
+        FIRE_AND_FORGET
+    }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for password hashing.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.security.password")
+@Data
+public class PasswordHashingProperties {
+
+    /**
+     * BCrypt work factor (log2 of the number of rounds, 4 to 31). Stored hashes with another
+     * cost are rehashed on the next successful login.
+     */
+    private int strength = 10;
+
+    /**
+     * Number of threads hashing passwords, or 0 for the number of available processors.
+     */
+    private int threads = 0;
+
+    /**
+     * Maximum number of hashing operations waiting for a thread. Beyond that, requests are rejected with 503.
+     */
+    private int queueCapacity = 50;
+}
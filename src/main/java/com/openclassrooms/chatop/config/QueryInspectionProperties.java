@@ -0,0 +1,31 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the counting of Hibernate statements, meant for development and CI.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.query-inspection")
+@Data
+public class QueryInspectionProperties {
+
+    /**
+     * Whether statements and lazy loads are counted. Off in production.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Whether JSON responses carry an X-Query-Summary header with the counts of their request.
+     */
+    private boolean summaryHeader = true;
+
+    /**
+     * Requests running more statements than this are logged as a warning, as are requests
+     * running the same statement several times.
+     */
+    private int warnThreshold = 20;
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for the rate limiting of the login and registration endpoints.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.security.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    /**
+     * Whether attempts are rate limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Store of the buckets: "memory" (per instance) or "jdbc" (shared by every instance).
+     */
+    private String backend = "memory";
+
+    /**
+     * Maximum number of buckets kept in memory by the memory backend.
+     */
+    private long maxTrackedKeys = 100_000;
+
+    /**
+     * Attempts per client IP address, whatever the account.
+     */
+    private Limit ip = new Limit(20, 3_000);
+
+    /**
+     * Attempts per email address, whatever the client.
+     */
+    private Limit email = new Limit(5, 60_000);
+
+    /**
+     * Token bucket: up to {@code capacity} attempts in a burst, then one attempt per {@code refillInterval}.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /**
+         * Maximum number of attempts in a burst.
+         */
+        private int capacity;
+
+        /**
+         * Time to regain one attempt, in milliseconds.
+         */
+        private long refillInterval;
+    }
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for real-time message delivery.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.realtime")
+@Data
+public class RealtimeProperties {
+
+    /**
+     * Broker relaying new messages between instances: "memory" (single instance) or "jdbc".
+     */
+    private String broker = "memory";
+
+    /**
+     * Maximum number of events waiting to be written to one connection.
+     * A connection whose queue is full is closed, so a slow client never holds back the others.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Maximum number of open streams per user. The oldest stream is closed when exceeded.
+     */
+    private int maxConnectionsPerUser = 5;
+
+    /**
+     * Interval between keep-alive comments, in milliseconds.
+     */
+    private long heartbeatInterval = 25_000;
+
+    /**
+     * Lifetime of a stream, in milliseconds. Clients reconnect automatically when it ends.
+     */
+    private long connectionTimeout = 1_800_000;
+
+    /**
+     * Lifetime of a stream ticket, in milliseconds. A ticket must be redeemed within this delay.
+     */
+    private long streamTicketTtl = 30_000;
+
+    /**
+     * Maximum number of stream tickets issued and not yet redeemed or expired.
+     */
+    private long streamTicketMaxOutstanding = 100_000;
+
+    /**
+     * Interval between two polls of the jdbc broker, in milliseconds.
+     */
+    private long pollInterval = 1_000;
+
+    /**
+     * Retention of the events of the jdbc broker, in milliseconds.
+     */
+    private long eventRetention = 600_000;
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.chatop.config;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,14 +12,15 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.openclassrooms.chatop.security.BoundedPasswordEncoder;
 import com.openclassrooms.chatop.security.JwtAuthenticationFilter;
+import com.openclassrooms.chatop.security.LoginRateLimitFilter;
 import com.openclassrooms.chatop.security.CustomUserDetailsService;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -31,7 +33,10 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final LoginRateLimitFilter loginRateLimitFilter;
     private final CustomUserDetailsService customUserDetailsService;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Configures security filter chain with JWT authentication.
@@ -58,10 +63,13 @@ public class SecurityConfig {
                 )
                 // Configure authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches resume requests already authorized on their initial dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers("/uploads/**").permitAll()
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 // Use stateless session management
@@ -71,7 +79,9 @@ public class SecurityConfig {
                 // Add your custom authentication provider
                 .authenticationProvider(authenticationProvider())
                 // Ensure your JWT filter is processed before UsernamePasswordAuthenticationFilter
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Reject login and registration floods before any other work
+                .addFilterBefore(loginRateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -80,6 +90,7 @@ public class SecurityConfig {
 
     /**
      * Configures DAO authentication provider.
+     * Passwords hashed with another cost than the configured one are rehashed after a successful login.
      *
      * @return Configured AuthenticationProvider.
      */
@@ -88,17 +99,25 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(customUserDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         return authProvider;
     }
 
     /**
-     * Provides BCrypt password encoder.
+     * Provides BCrypt password encoder, hashing on a bounded pool of CPU-sized threads.
      *
      * @return PasswordEncoder instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = passwordHashingProperties.getThreads() > 0
+                ? passwordHashingProperties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                passwordHashingProperties.getStrength(),
+                threads,
+                passwordHashingProperties.getQueueCapacity(),
+                meterRegistry);
     }
 
     /**
@@ -0,0 +1,38 @@
+package com.openclassrooms.chatop.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.openclassrooms.chatop.repository.SlowQueryDataSource;
+import com.openclassrooms.chatop.service.SlowQueryLog;
+
+/**
+ * Configuration of the slow query log, replacing the per-statement SQL logging of Hibernate.
+ */
+@Configuration
+public class SlowQueryLogConfig {
+
+    /**
+     * Wraps the data source so that the statements of Hibernate and of the JdbcTemplate backends are timed.
+     * Static, as bean post-processors are created before the other beans.
+     *
+     * @param slowQueryLogProvider Provider of the slow query log.
+     * @return The post-processor wrapping the data source.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource(dataSource, slowQueryLogProvider);
+                }
+                return bean;
+            }
+        };
+    }
+}
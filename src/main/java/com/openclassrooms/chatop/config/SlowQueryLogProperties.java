@@ -0,0 +1,53 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the slow query log. Enabled state and threshold are initial values:
+ * both can be changed at runtime through the administration endpoint.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "application.slow-query-log")
+@Data
+public class SlowQueryLogProperties {
+
+    /**
+     * Whether slow statements are logged. Off by default, as timing every statement has a cost;
+     * an administrator switches it on while investigating.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Statements taking at least this long are logged, in milliseconds.
+     */
+    private long threshold = 200;
+
+    /**
+     * Which bind parameter values are written to the log.
+     */
+    private Redaction redaction = Redaction.TEXT;
+
+    /**
+     * Bind parameter redaction levels.
+     */
+    public enum Redaction {
+        /**
+         * Only the type of every parameter is logged.
+         */
+        ALL,
+
+        /**
+         * Numbers, booleans and dates are logged; strings, binary and other values only by type,
+         * so emails, names, messages and password hashes never reach the log.
+         */
+        TEXT,
+
+        /**
+         * Every value is logged. For local development only.
+         */
+        NONE
+    }
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.chatop.config;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import com.openclassrooms.chatop.service.BlobStorage;
+import com.openclassrooms.chatop.service.LocalBlobStorage;
+import com.openclassrooms.chatop.service.S3BlobStorage;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * Configuration class selecting the storage backend of uploaded files.
+ * Files are kept in the upload directory unless file.storage.type is set to s3.
+ */
+@Configuration
+public class StorageConfig {
+
+    /**
+     * Local file system storage, rooted at the upload directory.
+     *
+     * @param uploadDir The upload directory.
+     * @return The local storage.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
+    public BlobStorage localBlobStorage(@Value("${file.upload-dir}") String uploadDir) {
+        return new LocalBlobStorage(Paths.get(uploadDir));
+    }
+
+    /**
+     * S3 client. The HTTP connection pool it holds is shared by every request.
+     *
+     * @param storageProperties The storage settings.
+     * @return The S3 client.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+    public S3Client s3Client(StorageProperties storageProperties) {
+        StorageProperties.S3 s3 = storageProperties.getS3();
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(s3.getRegion()))
+                .credentialsProvider(credentialsProvider(s3))
+                .serviceConfiguration(serviceConfiguration(s3));
+        if (StringUtils.hasText(s3.getEndpoint())) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Signer of presigned download URLs. Signing is done locally, without calling the object store.
+     *
+     * @param storageProperties The storage settings.
+     * @return The presigner.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+    public S3Presigner s3Presigner(StorageProperties storageProperties) {
+        StorageProperties.S3 s3 = storageProperties.getS3();
+        S3Presigner.Builder builder = S3Presigner.builder()
+                .region(Region.of(s3.getRegion()))
+                .credentialsProvider(credentialsProvider(s3))
+                .serviceConfiguration(serviceConfiguration(s3));
+        if (StringUtils.hasText(s3.getEndpoint())) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * S3-compatible object storage.
+     *
+     * @param s3Client The S3 client.
+     * @param s3Presigner The presigner.
+     * @param storageProperties The storage settings.
+     * @return The S3 storage.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+    public BlobStorage s3BlobStorage(S3Client s3Client, S3Presigner s3Presigner, StorageProperties storageProperties) {
+        if (!StringUtils.hasText(storageProperties.getS3().getBucket())) {
+            throw new IllegalStateException("file.storage.s3.bucket must be set when file.storage.type is s3");
+        }
+        return new S3BlobStorage(s3Client, s3Presigner, storageProperties.getS3());
+    }
+
+    private AwsCredentialsProvider credentialsProvider(StorageProperties.S3 s3) {
+        if (StringUtils.hasText(s3.getAccessKey())) {
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey()));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+
+    private S3Configuration serviceConfiguration(StorageProperties.S3 s3) {
+        return S3Configuration.builder()
+                .pathStyleAccessEnabled(s3.isPathStyleAccess())
+                .build();
+    }
+}
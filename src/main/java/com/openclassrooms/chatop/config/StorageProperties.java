@@ -0,0 +1,102 @@
+package com.openclassrooms.chatop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the storage backend of uploaded files.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "file.storage")
+@Data
+public class StorageProperties {
+
+    /**
+     * Backend storing the uploaded files.
+     */
+    private StorageType type = StorageType.LOCAL;
+
+    /**
+     * Whether existing files of the upload directory are copied to the configured backend at startup.
+     */
+    private boolean migrateOnStartup = false;
+
+    /**
+     * Settings of the S3 backend.
+     */
+    private S3 s3 = new S3();
+
+    /**
+     * Supported storage backends.
+     */
+    public enum StorageType {
+        /**
+         * Files stored in the upload directory of the node.
+         */
+        LOCAL,
+
+        /**
+         * Files stored in an S3-compatible object store (AWS S3, MinIO...).
+         */
+        S3
+    }
+
+    /**
+     * Settings of an S3-compatible object store.
+     */
+    @Data
+    public static class S3 {
+
+        /**
+         * Endpoint of the object store, for S3-compatible services. AWS endpoints are used when empty.
+         */
+        private String endpoint;
+
+        /**
+         * Region of the bucket.
+         */
+        private String region = "us-east-1";
+
+        /**
+         * Bucket holding the files.
+         */
+        private String bucket;
+
+        /**
+         * Access key. The default AWS credentials chain is used when empty.
+         */
+        private String accessKey;
+
+        /**
+         * Secret key.
+         */
+        private String secretKey;
+
+        /**
+         * Whether to address the bucket in the path rather than the host name, as MinIO expects.
+         */
+        private boolean pathStyleAccess = true;
+
+        /**
+         * Whether file downloads are redirected to presigned URLs instead of being proxied by the application.
+         */
+        private boolean presignedRedirects = true;
+
+        /**
+         * Validity of presigned URLs, in milliseconds.
+         */
+        private long presignedUrlTtl = 900_000;
+
+        /**
+         * Files larger than this many bytes are uploaded in several parts.
+         */
+        private long multipartThreshold = 8 * 1024 * 1024;
+
+        /**
+         * Size of each part of a multipart upload, in bytes (5 MB minimum).
+         */
+        private int partSize = 8 * 1024 * 1024;
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.chatop.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.openclassrooms.chatop.dto.CacheStatsResponse;
+import com.openclassrooms.chatop.dto.PasswordHashingStatsResponse;
+import com.openclassrooms.chatop.dto.SlowQueryLogSettings;
+import com.openclassrooms.chatop.security.BoundedPasswordEncoder;
+import com.openclassrooms.chatop.service.SlowQueryLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Controller exposing operational information to administrators.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "Administration", description = "Endpoints reserved to administrators")
+public class AdminController {
+
+    private final CacheManager cacheManager;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Get the statistics of every in-process cache.
+     *
+     * @return Hit, miss and eviction statistics per cache.
+     */
+    @Operation(summary = "Get cache statistics", description = "Retrieves hit, miss and eviction statistics of every in-process cache")
+    @ApiResponse(responseCode = "200", description = "Cache statistics")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "Forbidden !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+                CacheStats cacheStats = caffeineCache.stats();
+                stats.add(CacheStatsResponse.builder()
+                        .name(name)
+                        .size(caffeineCache.estimatedSize())
+                        .hits(cacheStats.hitCount())
+                        .misses(cacheStats.missCount())
+                        .hitRate(cacheStats.hitRate())
+                        .evictions(cacheStats.evictionCount())
+                        .build());
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Get the statistics of the password hashing pool.
+     *
+     * @return Hashing latency, queue depth and rejections.
+     */
+    @Operation(summary = "Get password hashing statistics", description = "Retrieves the hashing latency, queue depth and rejections of the password hashing pool")
+    @ApiResponse(responseCode = "200", description = "Password hashing statistics")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "Forbidden !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHashingStatsResponse> getPasswordHashingStats() {
+        return ResponseEntity.ok(PasswordHashingStatsResponse.builder()
+                .hashes(passwordEncoder.getHashCount())
+                .averageMillis(passwordEncoder.getAverageHashMillis())
+                .maxMillis(passwordEncoder.getMaxHashMillis())
+                .queueDepth(passwordEncoder.getQueueDepth())
+                .rejected(passwordEncoder.getRejectedCount())
+                .build());
+    }
+
+    /**
+     * Get the settings of the slow query log.
+     *
+     * @return Whether the log is enabled, and its threshold.
+     */
+    @Operation(summary = "Get slow query log settings", description = "Retrieves whether slow statements are logged, and the threshold")
+    @ApiResponse(responseCode = "200", description = "Slow query log settings")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "Forbidden !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/slow-query-log")
+    public ResponseEntity<SlowQueryLogSettings> getSlowQueryLogSettings() {
+        return ResponseEntity.ok(currentSlowQueryLogSettings());
+    }
+
+    /**
+     * Switch the slow query log on or off and set its threshold, without restarting.
+     *
+     * @param settings The new settings.
+     * @return The settings in effect.
+     */
+    @Operation(summary = "Update slow query log settings", description = "Switches the slow query log on or off and sets its threshold, without restarting")
+    @ApiResponse(responseCode = "200", description = "Slow query log settings updated")
+    @ApiResponse(responseCode = "400", description = "Invalid settings", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "Forbidden !", content = @Content(schema = @Schema(hidden = true)))
+    @PutMapping("/slow-query-log")
+    public ResponseEntity<SlowQueryLogSettings> updateSlowQueryLogSettings(@Valid @RequestBody SlowQueryLogSettings settings) {
+        slowQueryLog.update(settings.getEnabled(), settings.getThresholdMillis());
+        return ResponseEntity.ok(currentSlowQueryLogSettings());
+    }
+
+    private SlowQueryLogSettings currentSlowQueryLogSettings() {
+        return SlowQueryLogSettings.builder()
+                .enabled(slowQueryLog.isEnabled())
+                .thresholdMillis(slowQueryLog.getThresholdMillis())
+                .build();
+    }
+}
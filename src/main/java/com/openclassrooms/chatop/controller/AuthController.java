@@ -10,6 +10,8 @@ import org.springframework.web.bind.annotation.*;
 
 import com.openclassrooms.chatop.dto.AuthenticationRequest;
 import com.openclassrooms.chatop.dto.AuthenticationResponse;
+import com.openclassrooms.chatop.dto.GlobalMessageResponse;
+import com.openclassrooms.chatop.dto.RefreshTokenRequest;
 import com.openclassrooms.chatop.dto.RegisterRequest;
 import com.openclassrooms.chatop.dto.UserResponse;
 import com.openclassrooms.chatop.service.AuthService;
@@ -60,6 +62,21 @@ public class AuthController {
         return ResponseEntity.ok(authService.authenticate(request));
     }
 
+    /**
+     * Exchanges a refresh token for new tokens.
+     *
+     * @param request The refresh token.
+     * @return Authentication response with a new JWT token and the next refresh token.
+     */
+    @Operation(summary = "Refresh the JWT token", description = "Exchanges a single-use refresh token for a new JWT token and the next refresh token")
+    @ApiResponse(responseCode = "200", description = "Tokens refreshed successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid request parameters !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Invalid, expired or already used refresh token", content = @Content(schema = @Schema(hidden = true)))
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
     /**
      * Gets the currently authenticated user.
      *
@@ -71,4 +88,19 @@ public class AuthController {
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser() {
         return ResponseEntity.ok(userMapper.toDto(authService.getCurrentUser()));
-    }}
+    }
+
+    /**
+     * Revokes every token issued to the current user.
+     *
+     * @return Message confirming the revocation.
+     */
+    @Operation(summary = "Log out from all devices", description = "Revokes every JWT token issued to the current user")
+    @ApiResponse(responseCode = "200", description = "Tokens revoked")
+    @ApiResponse(responseCode = "401", description = "User not authenticated !", content = @Content(schema = @Schema(hidden = true)))
+    @PostMapping("/logout")
+    public ResponseEntity<GlobalMessageResponse> logout() {
+        authService.revokeCurrentUserTokens();
+        return ResponseEntity.ok(new GlobalMessageResponse("Logged out !"));
+    }
+}
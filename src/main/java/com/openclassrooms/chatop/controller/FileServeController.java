@@ -1,18 +1,31 @@
 package com.openclassrooms.chatop.controller;
 
+import com.openclassrooms.chatop.model.ImageVariant;
 import com.openclassrooms.chatop.service.FileService;
+import com.openclassrooms.chatop.service.RangedResource;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller for serving uploaded files.
@@ -22,29 +35,126 @@ import java.nio.file.Path;
 @RequiredArgsConstructor
 public class FileServeController {
 
+    /**
+     * Request attributes of Tomcat's sendfile support, used to hand the file to the kernel.
+     */
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Cache policy of files whose name is their content hash.
+     */
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    /**
+     * Cache policy of other files, which may be replaced under the same name.
+     */
+    private static final CacheControl REVALIDATED = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
     private final FileService fileService;
 
     /**
      * Serves a requested file if it exists.
+     * Supports conditional requests (If-None-Match / If-Modified-Since) and byte ranges.
+     * Full responses are sent with zero-copy sendfile when the container supports it.
+     * When the storage backend supports it, the client is redirected to a presigned URL instead,
+     * so that file bytes do not go through the application.
+     * A picture size can be requested; the original is served until the variant has been generated.
      *
      * @param filename The name of the requested file.
+     * @param requestedSize Optional picture size (thumbnail, card or full).
+     * @param webRequest Current request, used to evaluate conditional and range headers.
      * @return The requested file as a resource.
      * @throws IOException If there is an issue accessing the file.
      */
-    @Operation(summary = "Serve an uploaded file", description = "Retrieves and serves a file stored in the uploads directory")
+    @Operation(summary = "Serve an uploaded file", description = "Retrieves and serves a file stored in the uploads directory, with caching headers and byte-range support")
     @ApiResponse(responseCode = "200", description = "File retrieved successfully")
+    @ApiResponse(responseCode = "206", description = "Requested byte range retrieved successfully")
+    @ApiResponse(responseCode = "302", description = "Redirect to a presigned URL of the storage backend")
+    @ApiResponse(responseCode = "304", description = "File not modified")
+    @ApiResponse(responseCode = "400", description = "Unknown picture size")
     @ApiResponse(responseCode = "404", description = "File not found")
     @GetMapping("/{filename:.+}")
     public ResponseEntity<Resource> getFile(
-            @PathVariable @Parameter(description = "Name of the requested file") String filename) throws IOException {
+            @PathVariable @Parameter(description = "Name of the requested file") String filename,
+            @RequestParam(name = "size", required = false) @Parameter(description = "Picture size: thumbnail, card or full") String requestedSize,
+            ServletWebRequest webRequest) throws IOException {
+
+        String servedName = (requestedSize != null) ? fileService.resolveVariant(filename, ImageVariant.fromName(requestedSize)) : filename;
+        Optional<URI> presignedUrl = fileService.presignedUrl(servedName);
+        if (presignedUrl.isPresent()) {
+            // Presigned URLs expire, so the redirect itself must not be cached
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(presignedUrl.get())
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
 
-        Resource resource = fileService.loadFileAsResource(filename);
-        Path filePath = resource.getFile().toPath();
-        String contentType = fileService.getFileContentType(filePath);
+        Resource resource = fileService.loadFileAsResource(servedName);
+        long size = resource.contentLength();
+        long lastModified = resource.lastModified();
 
-        return ResponseEntity.ok()
+        // A fallback to the original must not be cached under the variant URL
+        boolean fallback = requestedSize != null && servedName.equals(filename);
+        CacheControl cacheControl = fallback ? CacheControl.noCache()
+                : fileService.isContentAddressed(servedName) ? IMMUTABLE : REVALIDATED;
+        String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        HttpServletRequest request = webRequest.getRequest();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        ResourceRegion region = (rangeHeader != null && resource instanceof RangedResource)
+                ? singleRegion(rangeHeader, resource) : null;
+
+        String contentType = fileService.getFileContentType(servedName);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(region != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
                 .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .body(resource);
+                .cacheControl(cacheControl)
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + servedName + "\"");
+
+        if (resource.isFile() && rangeHeader == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Let the container copy the file straight from the page cache to the socket
+            Path filePath = resource.getFile().toPath();
+            request.setAttribute(SENDFILE_FILENAME, filePath.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return response.contentLength(size).build();
+        }
+
+        if (region != null) {
+            // Download only the requested bytes from the storage instead of skipping to them
+            long start = region.getPosition();
+            long end = start + region.getCount() - 1;
+            return response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                    .contentLength(region.getCount())
+                    .body(new InputStreamResource(((RangedResource) resource).getInputStream(start, end)));
+        }
+
+        // Other range requests are answered with 206 partial content by Spring's resource region support
+        return response.body(resource);
+    }
+
+    /**
+     * Resolves a Range header asking for a single satisfiable range.
+     *
+     * @param rangeHeader The Range header.
+     * @param resource The requested resource.
+     * @return The requested region, or null for several ranges or an invalid header, which are left to Spring.
+     */
+    private static ResourceRegion singleRegion(String rangeHeader, Resource resource) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0).toResourceRegion(resource) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,28 +1,41 @@
 package com.openclassrooms.chatop.controller;
 
+import com.openclassrooms.chatop.dto.MessageBatchRequest;
+import com.openclassrooms.chatop.dto.MessagePageResponse;
 import com.openclassrooms.chatop.dto.MessageRequest;
 import com.openclassrooms.chatop.dto.GlobalMessageResponse;
+import com.openclassrooms.chatop.dto.StreamTicketResponse;
+import com.openclassrooms.chatop.dto.UnreadCountResponse;
+import com.openclassrooms.chatop.service.AuthService;
 import com.openclassrooms.chatop.service.MessageService;
+import com.openclassrooms.chatop.security.StreamTicketService;
+import com.openclassrooms.chatop.service.MessageStreamHub;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
- * REST Controller handling messages operations (CRUD).
+ * REST Controller handling messages operations: sending, threads and inbox.
  */
 @RestController
 @RequestMapping("/api/messages")
 @RequiredArgsConstructor
-@Tag(name = "Messages", description = "Endpoints for sending messages between users")
+@Tag(name = "Messages", description = "Endpoints for sending and reading messages between users")
 public class MessageController {
 
     private final MessageService messageService;
+    private final MessageStreamHub messageStreamHub;
+    private final AuthService authService;
+    private final StreamTicketService streamTicketService;
 
     /**
      * Endpoint to create a new message.
@@ -35,8 +48,143 @@ public class MessageController {
     @ApiResponse(responseCode = "200", description = "Message created successfully")
     @ApiResponse(responseCode = "400", description = "Invalid request parameters !", content = @Content(schema = @Schema(hidden = true)))
     @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "User ID is not the authenticated user !", content = @Content(schema = @Schema(hidden = true)))
     @PostMapping
     public ResponseEntity<GlobalMessageResponse> createMessage(@Valid @RequestBody MessageRequest messageRequest) {
         return ResponseEntity.ok(messageService.createMessage(messageRequest));
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint to create several messages at once.
+     *
+     * @param batchRequest The DTO containing the messages.
+     * @return A response confirming that the messages were sent successfully.
+     */
+    @Operation(summary = "Create several messages", description = "Sends up to 100 messages in a single request. Either all messages are sent, or none.")
+    @ApiResponse(responseCode = "200", description = "Messages created successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid request parameters !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "A user ID is not the authenticated user !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "404", description = "User or rental not found !", content = @Content(schema = @Schema(hidden = true)))
+    @PostMapping("/batch")
+    public ResponseEntity<GlobalMessageResponse> createMessages(@Valid @RequestBody MessageBatchRequest batchRequest) {
+        return ResponseEntity.ok(messageService.createMessages(batchRequest));
+    }
+
+    /**
+     * Endpoint to read the messages of a rental, page by page.
+     *
+     * @param rentalId The ID of the rental.
+     * @param cursor Cursor returned with the previous page.
+     * @param limit Maximum number of messages in the page.
+     * @return The page of messages with the cursor of the next page.
+     */
+    @Operation(summary = "Get the messages of a rental", description = "Retrieves the messages of a rental page by page, newest first. The owner sees every message, other users only their own.")
+    @ApiResponse(responseCode = "200", description = "Page of messages")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "404", description = "Rental not found !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/rentals/{rentalId}")
+    public ResponseEntity<MessagePageResponse> getThread(
+            @PathVariable Long rentalId,
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "Cursor returned with the previous page") String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) @Parameter(description = "Page size (max 100)") Integer limit) {
+        return ResponseEntity.ok(messageService.getThread(rentalId, cursor, limit));
+    }
+
+    /**
+     * Endpoint to mark the messages of a rental as read.
+     *
+     * @param rentalId The ID of the rental.
+     * @return A confirmation message.
+     */
+    @Operation(summary = "Mark the messages of a rental as read", description = "Marks every unread message of a rental as read. Reserved to the rental owner.")
+    @ApiResponse(responseCode = "200", description = "Messages marked as read")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "403", description = "Not the owner of the rental !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "404", description = "Rental not found !", content = @Content(schema = @Schema(hidden = true)))
+    @PostMapping("/rentals/{rentalId}/read")
+    public ResponseEntity<GlobalMessageResponse> markThreadAsRead(@PathVariable Long rentalId) {
+        return ResponseEntity.ok(messageService.markThreadAsRead(rentalId));
+    }
+
+    /**
+     * Endpoint to read the messages received on the rentals of the current user, page by page.
+     *
+     * @param cursor Cursor returned with the previous page.
+     * @param limit Maximum number of messages in the page.
+     * @return The page of messages with the cursor of the next page.
+     */
+    @Operation(summary = "Get the inbox", description = "Retrieves the messages received on the rentals of the current user, newest first")
+    @ApiResponse(responseCode = "200", description = "Page of messages")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/inbox")
+    public ResponseEntity<MessagePageResponse> getInbox(
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "Cursor returned with the previous page") String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) @Parameter(description = "Page size (max 100)") Integer limit) {
+        return ResponseEntity.ok(messageService.getInbox(cursor, limit));
+    }
+
+    /**
+     * Endpoint to count the unread messages received on the rentals of the current user.
+     *
+     * @return The number of unread messages.
+     */
+    @Operation(summary = "Count unread messages", description = "Counts the unread messages received on the rentals of the current user")
+    @ApiResponse(responseCode = "200", description = "Number of unread messages")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/inbox/unread-count")
+    public ResponseEntity<UnreadCountResponse> getUnreadCount() {
+        return ResponseEntity.ok(messageService.getUnreadCount());
+    }
+
+    /**
+     * Endpoint to read the messages sent by the current user, page by page.
+     *
+     * @param cursor Cursor returned with the previous page.
+     * @param limit Maximum number of messages in the page.
+     * @return The page of messages with the cursor of the next page.
+     */
+    @Operation(summary = "Get sent messages", description = "Retrieves the messages sent by the current user, newest first")
+    @ApiResponse(responseCode = "200", description = "Page of messages")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/sent")
+    public ResponseEntity<MessagePageResponse> getSent(
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "Cursor returned with the previous page") String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) @Parameter(description = "Page size (max 100)") Integer limit) {
+        return ResponseEntity.ok(messageService.getSent(cursor, limit));
+    }
+
+    /**
+     * Endpoint to issue a single-use ticket opening the message stream of the current user.
+     *
+     * @return The ticket and its lifetime.
+     */
+    @Operation(summary = "Issue a stream ticket", description = "Issues a short-lived, single-use ticket to pass as the \"ticket\" query parameter of the message stream, since browsers cannot set headers on an EventSource")
+    @ApiResponse(responseCode = "200", description = "Ticket issued")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @PostMapping("/stream/ticket")
+    public ResponseEntity<StreamTicketResponse> issueStreamTicket() {
+        return ResponseEntity.ok(StreamTicketResponse.builder()
+                .ticket(streamTicketService.issue(authService.getCurrentPrincipal()))
+                .expiresIn(streamTicketService.getTicketTtl().toSeconds())
+                .build());
+    }
+
+    /**
+     * Endpoint to receive the messages sent to the current user in real time.
+     * Browsers cannot set headers on an EventSource, so the stream can also be opened with a ticket
+     * issued by POST /api/messages/stream/ticket, passed as a "ticket" query parameter.
+     *
+     * @return The Server-Sent Events stream.
+     */
+    @Operation(summary = "Stream received messages", description = "Pushes each message received on the rentals of the current user as a Server-Sent Event named \"message\". Accepts a single-use ticket from POST /api/messages/stream/ticket as a \"ticket\" query parameter.")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages() {
+        return messageStreamHub.connect(authService.getCurrentUserId());
+    }
+}
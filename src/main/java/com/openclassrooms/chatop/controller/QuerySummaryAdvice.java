@@ -0,0 +1,52 @@
+package com.openclassrooms.chatop.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.openclassrooms.chatop.config.QueryInspectionProperties;
+import com.openclassrooms.chatop.service.QueryInspector;
+import com.openclassrooms.chatop.service.QueryStatistics;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Adds the statement counts of the request to every response body written by a controller,
+ * in an X-Query-Summary header. Headers must be set before the body is written, so the header
+ * holds the statements run until the controller returned.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "application.query-inspection.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class QuerySummaryAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SUMMARY_HEADER = "X-Query-Summary";
+
+    private final QueryInspector queryInspector;
+    private final QueryInspectionProperties queryInspectionProperties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return queryInspectionProperties.isSummaryHeader();
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        QueryStatistics statistics = queryInspector.currentScope();
+        if (statistics != null) {
+            response.getHeaders().set(SUMMARY_HEADER, statistics.summary());
+        }
+        return body;
+    }
+}
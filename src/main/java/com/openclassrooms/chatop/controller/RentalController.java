@@ -1,19 +1,33 @@
 package com.openclassrooms.chatop.controller;
 
 import com.openclassrooms.chatop.dto.GlobalMessageResponse;
+import com.openclassrooms.chatop.dto.RentalCatalogVersion;
+import com.openclassrooms.chatop.dto.RentalFilter;
 import com.openclassrooms.chatop.dto.RentalListResponse;
+import com.openclassrooms.chatop.dto.RentalPageResponse;
 import com.openclassrooms.chatop.dto.RentalRequest;
 import com.openclassrooms.chatop.dto.RentalResponse;
 import com.openclassrooms.chatop.service.RentalService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * REST Controller handling rental operations (CRUD).
@@ -60,31 +74,123 @@ public class RentalController {
     }
 
     /**
-     * Get all available rentals.
+     * Get one page of rentals, optionally filtered.
+     *
+     * @param cursor Cursor returned with the previous page.
+     * @param limit Maximum number of rentals in the page.
+     * @param minPrice Minimum price filter.
+     * @param maxPrice Maximum price filter.
+     * @param minSurface Minimum surface filter.
+     * @param maxSurface Maximum surface filter.
+     * @param ownerId Owner filter.
+     * @param webRequest Current request, used to evaluate conditional headers.
+     * @return The page of rentals with the cursor of the next page, or 304 if the client copy is current.
+     */
+    @Operation(summary = "Get a page of rentals", description = "Retrieves rental properties page by page, newest first, with optional price, surface and owner filters. Supports If-None-Match and If-Modified-Since.")
+    @ApiResponse(responseCode = "200", description = "Page of rentals")
+    @ApiResponse(responseCode = "304", description = "Listing not modified", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor !", content = @Content(schema = @Schema(hidden = true)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping
+    public ResponseEntity<RentalPageResponse> getRentals(
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "Cursor returned with the previous page") String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + RentalService.DEFAULT_PAGE_SIZE) @Parameter(description = "Page size (max 100)") Integer limit,
+            @RequestParam(value = "min_price", required = false) Integer minPrice,
+            @RequestParam(value = "max_price", required = false) Integer maxPrice,
+            @RequestParam(value = "min_surface", required = false) Integer minSurface,
+            @RequestParam(value = "max_surface", required = false) Integer maxSurface,
+            @RequestParam(value = "owner_id", required = false) Long ownerId,
+            WebRequest webRequest) {
+
+        RentalFilter filter = RentalFilter.builder()
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minSurface(minSurface)
+                .maxSurface(maxSurface)
+                .ownerId(ownerId)
+                .build();
+
+        // Validate the client copy against the catalogue version before building the page
+        RentalCatalogVersion version = rentalService.getCatalogVersion();
+        String pageKey = filter + "|" + cursor + "|" + limit;
+        String eTag = "\"" + version.getCount() + "-" + toEpochMilli(version.getLastUpdatedAt()) + "-"
+                + DigestUtils.md5DigestAsHex(pageKey.getBytes(StandardCharsets.UTF_8)) + "\"";
+        long lastModified = toEpochMilli(version.getLastUpdatedAt());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache())
+                .body(rentalService.getRentalPage(filter, cursor, limit));
+    }
+
+    /**
+     * Get all available rentals in a single response.
+     * Only served when explicitly requested with {@code all=true}.
      *
      * @return List of all rentals wrapped in a map.
      */
-    @Operation(summary = "Get all rentals", description = "Retrieves a list of all available rental properties")
+    @Operation(summary = "Get all rentals", description = "Retrieves a list of all available rental properties in one unpaged response (requires all=true)")
     @ApiResponse(responseCode = "200", description = "List of all rentals")
     @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
-    @GetMapping
+    @GetMapping(params = "all=true")
     public ResponseEntity<RentalListResponse> getAllRentals() {
         return ResponseEntity.ok(rentalService.getAllRentals());
     }
 
+    /**
+     * Stream all rentals as they are read from the database.
+     * Intended for exports and admin views: the response is written incrementally,
+     * so memory stays constant whatever the catalogue size.
+     *
+     * @return The list of all rentals, written as a stream.
+     */
+    @Operation(summary = "Stream all rentals", description = "Streams every rental property in one response, written incrementally as rows are read")
+    @ApiResponse(responseCode = "200", description = "List of all rentals", content = @Content(schema = @Schema(implementation = RentalListResponse.class)))
+    @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllRentals() {
+        StreamingResponseBody body = rentalService::streamAllRentals;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Get a specific rental by its ID.
      *
      * @param id ID of the rental to find.
-     * @return The rental if found.
+     * @param webRequest Current request, used to evaluate conditional headers.
+     * @return The rental if found, or 304 if the client copy is current.
      */
-    @Operation(summary = "Get a rental by ID", description = "Retrieves details of a specific rental property by ID")
+    @Operation(summary = "Get a rental by ID", description = "Retrieves details of a specific rental property by ID. Supports If-None-Match and If-Modified-Since.")
     @ApiResponse(responseCode = "200", description = "Rental details retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "Rental not modified", content = @Content(schema = @Schema(hidden = true)))
     @ApiResponse(responseCode = "401", description = "Unauthorized !", content = @Content(schema = @Schema(hidden = true)))
     @ApiResponse(responseCode = "404", description = "Rental not found !", content = @Content(schema = @Schema(hidden = true)))
     @GetMapping("/{id}")
-    public ResponseEntity<RentalResponse> getRentalById(@PathVariable Long id) {
-        return ResponseEntity.ok(rentalService.getRentalById(id));
+    public ResponseEntity<RentalResponse> getRentalById(@PathVariable Long id, WebRequest webRequest) {
+        // Validators come from the row, not from the cached copy, which another instance may have outdated
+        LocalDateTime updatedAt = rentalService.getRentalUpdatedAt(id);
+        String eTag = "\"" + id + "-" + toEpochMilli(updatedAt) + "\"";
+        long lastModified = toEpochMilli(updatedAt);
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+
+        RentalResponse rental = rentalService.getRentalById(id);
+        if (!updatedAt.equals(rental.getUpdatedAt())) {
+            rental = rentalService.reloadRental(id);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache())
+                .body(rental);
     }
 
     /**
@@ -120,4 +226,14 @@ public class RentalController {
 
         return ResponseEntity.ok(rentalService.updateRental(id, rentalRequest, picture));
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts a timestamp to epoch milliseconds for HTTP date headers.
+     *
+     * @param dateTime Timestamp in the server time zone, may be null.
+     * @return Epoch milliseconds, or -1 if the timestamp is null.
+     */
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.chatop.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,4 +22,11 @@ public class AuthenticationResponse {
      */
     @Schema(description = "JWT token provided after successful authentication", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...")
     private String token;
+
+    /**
+     * Refresh token, exchanged at /api/auth/refresh for new tokens once the JWT expires.
+     */
+    @JsonProperty("refresh_token")
+    @Schema(description = "Single-use refresh token to obtain new tokens without the password", example = "q8Vh3kR0xN2cZ7yL5wT1uB9mF4aJ6dE0sG3pK8iO2vY")
+    private String refreshToken;
 }
\ No newline at end of file
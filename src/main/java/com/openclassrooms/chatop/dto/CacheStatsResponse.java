@@ -0,0 +1,34 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for the statistics of an in-process cache")
+public class CacheStatsResponse {
+    @Schema(description = "Name of the cache", example = "users-by-email")
+    private String name;
+
+    @Schema(description = "Approximate number of entries", example = "1250")
+    private long size;
+
+    @Schema(description = "Number of lookups served from the cache", example = "98000")
+    private long hits;
+
+    @Schema(description = "Number of lookups that went to the database", example = "2000")
+    private long misses;
+
+    @Schema(description = "Ratio of hits over all lookups", example = "0.98")
+    @JsonProperty("hit_rate")
+    private double hitRate;
+
+    @Schema(description = "Number of entries evicted by size or expiration", example = "150")
+    private long evictions;
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.chatop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for sending several messages at once.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "DTO for sending several messages at once")
+public class MessageBatchRequest {
+
+    /**
+     * Messages to send.
+     */
+    @NotEmpty(message = "Messages cannot be empty")
+    @Size(max = 100, message = "At most 100 messages can be sent at once")
+    @Valid
+    @Schema(description = "Messages to send (at most 100)")
+    private List<MessageRequest> messages;
+}
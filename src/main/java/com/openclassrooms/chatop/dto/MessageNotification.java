@@ -0,0 +1,30 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for a new message to deliver to a connected user.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for a new message delivered in real time")
+public class MessageNotification {
+
+    /**
+     * ID of the user receiving the message.
+     */
+    @JsonProperty("recipient_id")
+    @Schema(description = "ID of the user receiving the message", example = "10")
+    private Long recipientId;
+
+    /**
+     * The new message.
+     */
+    @Schema(description = "The new message")
+    private MessageResponse message;
+}
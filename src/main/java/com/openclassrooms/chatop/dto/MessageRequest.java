@@ -27,7 +27,7 @@ public class MessageRequest {
     private String message;
 
     /**
-     * ID of the user sending the message.
+     * ID of the user sending the message. Must be the authenticated user.
      */
     @NotNull(message = "User ID is required")
     @JsonProperty("user_id")
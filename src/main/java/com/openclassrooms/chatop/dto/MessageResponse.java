@@ -34,4 +34,8 @@ public class MessageResponse {
 
     @Schema(description = "Timestamp of the last update")
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Timestamp when the rental owner read the message, null while unread")
+    @JsonProperty("read_at")
+    private LocalDateTime readAt;
 }
\ No newline at end of file
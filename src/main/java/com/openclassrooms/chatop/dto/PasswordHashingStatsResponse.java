@@ -0,0 +1,33 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for the statistics of the password hashing pool")
+public class PasswordHashingStatsResponse {
+    @Schema(description = "Number of hashes computed since startup", example = "5200")
+    private long hashes;
+
+    @Schema(description = "Average time spent computing a hash, in milliseconds", example = "74.2")
+    @JsonProperty("average_millis")
+    private double averageMillis;
+
+    @Schema(description = "Longest time spent computing a hash, in milliseconds", example = "190.5")
+    @JsonProperty("max_millis")
+    private double maxMillis;
+
+    @Schema(description = "Number of hashes waiting for a thread", example = "3")
+    @JsonProperty("queue_depth")
+    private int queueDepth;
+
+    @Schema(description = "Number of requests rejected because the queue was full", example = "12")
+    private long rejected;
+}
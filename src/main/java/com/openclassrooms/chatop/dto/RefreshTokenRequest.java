@@ -0,0 +1,28 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for refresh requests.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "DTO for exchanging a refresh token for new tokens")
+public class RefreshTokenRequest {
+
+    /**
+     * Refresh token returned by the previous login or refresh.
+     */
+    @NotBlank(message = "Refresh token is required")
+    @JsonProperty("refresh_token")
+    @Schema(description = "Refresh token returned by the previous login or refresh", example = "q8Vh3kR0xN2cZ7yL5wT1uB9mF4aJ6dE0sG3pK8iO2vY")
+    private String refreshToken;
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.chatop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of the rental catalogue as a whole, used to validate cached listings.
+ * Any creation, update or deletion changes either the count or the last update date.
+ */
+@Data
+@AllArgsConstructor
+public class RentalCatalogVersion {
+
+    /**
+     * Number of rentals in the catalogue.
+     */
+    private Long count;
+
+    /**
+     * Most recent update date across all rentals, null if the catalogue is empty.
+     */
+    private LocalDateTime lastUpdatedAt;
+}
@@ -0,0 +1,49 @@
+package com.openclassrooms.chatop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional criteria used to narrow down the rental listing.
+ * Every field left null is ignored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Filters applied to the rental listing")
+public class RentalFilter {
+
+    /**
+     * Minimum price (inclusive).
+     */
+    @Schema(description = "Minimum price (inclusive)", example = "500")
+    private Integer minPrice;
+
+    /**
+     * Maximum price (inclusive).
+     */
+    @Schema(description = "Maximum price (inclusive)", example = "1500")
+    private Integer maxPrice;
+
+    /**
+     * Minimum surface area in square meters (inclusive).
+     */
+    @Schema(description = "Minimum surface area in square meters (inclusive)", example = "20")
+    private Integer minSurface;
+
+    /**
+     * Maximum surface area in square meters (inclusive).
+     */
+    @Schema(description = "Maximum surface area in square meters (inclusive)", example = "80")
+    private Integer maxSurface;
+
+    /**
+     * ID of the owner whose rentals are requested.
+     */
+    @Schema(description = "ID of the owner whose rentals are requested", example = "10")
+    private Long ownerId;
+}
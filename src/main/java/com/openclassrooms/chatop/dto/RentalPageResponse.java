@@ -0,0 +1,28 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for one page of rental properties")
+public class RentalPageResponse {
+    @Schema(description = "Rental properties of the current page")
+    private List<RentalResponse> rentals;
+
+    @Schema(description = "Cursor to pass back to fetch the next page, null on the last page", example = "MjAyNC0wMi0wMVQxMjowMHw0Mg")
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    @Schema(description = "Whether more rentals are available after this page", example = "true")
+    @JsonProperty("has_more")
+    private boolean hasMore;
+}
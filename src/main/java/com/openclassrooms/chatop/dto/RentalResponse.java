@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -30,6 +31,10 @@ public class RentalResponse {
     @Schema(description = "URL of the rental picture", example = "http://localhost:3001/uploads/image.jpg")
     private String picture;
 
+    @Schema(description = "URLs of the downscaled picture sizes, keyed by size name", example = "{\"thumbnail\": \"http://localhost:3001/uploads/image.jpg?size=thumbnail\"}")
+    @JsonProperty("picture_variants")
+    private Map<String, String> pictureVariants;
+
     @Schema(description = "Detailed description of the rental")
     private String description;
 
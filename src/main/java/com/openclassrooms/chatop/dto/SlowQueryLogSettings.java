@@ -0,0 +1,30 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for the runtime settings of the slow query log.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for the runtime settings of the slow query log")
+public class SlowQueryLogSettings {
+    @NotNull(message = "Enabled is required")
+    @Schema(description = "Whether slow statements are logged", example = "true")
+    private Boolean enabled;
+
+    @NotNull(message = "Threshold is required")
+    @PositiveOrZero(message = "Threshold must not be negative")
+    @Schema(description = "Statements taking at least this long are logged, in milliseconds", example = "200")
+    @JsonProperty("threshold_millis")
+    private Long thresholdMillis;
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.chatop.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for a message stream ticket.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for a single-use ticket opening the message stream")
+public class StreamTicketResponse {
+
+    /**
+     * Ticket to pass as the "ticket" query parameter of the stream.
+     */
+    @Schema(description = "Ticket to pass as the \"ticket\" query parameter of /api/messages/stream", example = "q3Jt0n2V8mJc7yqN1b7bYgq2m1s1bT0yXJ8Y0c5bKZk")
+    private String ticket;
+
+    /**
+     * Lifetime of the ticket, in seconds.
+     */
+    @JsonProperty("expires_in")
+    @Schema(description = "Number of seconds during which the ticket can be used", example = "30")
+    private long expiresIn;
+}
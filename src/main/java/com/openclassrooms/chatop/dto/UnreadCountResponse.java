@@ -0,0 +1,17 @@
+package com.openclassrooms.chatop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO for the number of unread messages")
+public class UnreadCountResponse {
+    @Schema(description = "Number of unread messages received on the rentals of the current user", example = "3")
+    private long unread;
+}
@@ -0,0 +1,12 @@
+package com.openclassrooms.chatop.exception;
+
+/**
+ * Exception thrown when a request is rejected because the server is saturated.
+ * Handled as 503 Service Unavailable: clients should retry later.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.chatop.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a client exceeds a rate limit.
+ * Handled as 429 Too Many Requests.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * Seconds after which the client may try again.
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
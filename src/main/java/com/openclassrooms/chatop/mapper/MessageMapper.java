@@ -17,6 +17,8 @@ public class MessageMapper {
     /**
      * Converts a Message entity to a MessageResponse DTO.
      * Maps all relevant fields including associated user and rental IDs.
+     * Only the identifiers of the user and rental are read, which Hibernate answers
+     * from the proxies without loading them.
      *
      * @param message The Message entity to convert
      * @return A MessageResponse containing the message data
@@ -29,6 +31,7 @@ public class MessageMapper {
                 .rentalId(message.getRental().getId())
                 .createdAt(message.getCreatedAt())
                 .updatedAt(message.getUpdatedAt())
+                .readAt(message.getReadAt())
                 .build();
     }
 
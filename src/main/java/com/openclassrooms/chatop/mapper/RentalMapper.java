@@ -2,11 +2,14 @@ package com.openclassrooms.chatop.mapper;
 
 import com.openclassrooms.chatop.dto.RentalResponse;
 import com.openclassrooms.chatop.dto.RentalRequest;
+import com.openclassrooms.chatop.model.ImageVariant;
 import com.openclassrooms.chatop.model.Rental;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +33,7 @@ public class RentalMapper {
                 .surface(rental.getSurface())
                 .price(rental.getPrice())
                 .picture(rental.getPicture())
+                .pictureVariants(toPictureVariants(rental.getPicture()))
                 .description(rental.getDescription())
                 .ownerId(rental.getOwnerId())
                 .createdAt(rental.getCreatedAt())
@@ -37,6 +41,23 @@ public class RentalMapper {
                 .build();
     }
 
+    /**
+     * Builds the URL of every downscaled size of a picture.
+     *
+     * @param picture URL of the original picture
+     * @return Variant URLs keyed by size name, or null if the rental has no picture
+     */
+    private Map<String, String> toPictureVariants(String picture) {
+        if (picture == null) {
+            return null;
+        }
+        Map<String, String> variants = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            variants.put(variant.getName(), picture + "?size=" + variant.getName());
+        }
+        return variants;
+    }
+
     /**
      * Converts a RentalRequest DTO to a new Rental entity.
      * Sets the creation and update timestamps to current time.
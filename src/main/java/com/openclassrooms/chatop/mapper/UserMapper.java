@@ -10,6 +10,7 @@ import com.openclassrooms.chatop.dto.RegisterRequest;
 import com.openclassrooms.chatop.dto.UserResponse;
 import com.openclassrooms.chatop.model.Role;
 import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.security.UserAccount;
 
 import lombok.RequiredArgsConstructor;
 
@@ -45,16 +46,16 @@ public class UserMapper {
      * Create a UserResponse DTO for returning user details
      * without sensitive information like passwords.
      *
-     * @param user The User entity.
+     * @param account The cached account of the user.
      * @return A UserResponse DTO.
      */
-    public UserResponse toDto(User user) {
+    public UserResponse toDto(UserAccount account) {
         return UserResponse.builder()
-                .id(user.getId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
+                .id(account.id())
+                .name(account.name())
+                .email(account.email())
+                .createdAt(account.createdAt())
+                .updatedAt(account.updatedAt())
                 .build();
     }
 }
\ No newline at end of file
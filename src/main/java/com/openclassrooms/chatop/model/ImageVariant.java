@@ -0,0 +1,68 @@
+package com.openclassrooms.chatop.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Locale;
+
+/**
+ * Enumeration of the downscaled sizes generated for each rental picture.
+ */
+@Schema(description = "Enumeration of the generated picture sizes")
+public enum ImageVariant {
+
+    /**
+     * Small preview used in lists.
+     */
+    @Schema(description = "Small preview used in lists")
+    THUMBNAIL(160),
+
+    /**
+     * Medium size used by listing cards.
+     */
+    @Schema(description = "Medium size used by listing cards")
+    CARD(480),
+
+    /**
+     * Large size used by the detail page.
+     */
+    @Schema(description = "Large size used by the detail page")
+    FULL(1280);
+
+    /**
+     * Maximum width or height in pixels.
+     */
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * Returns the lower-case name used in URLs and file names.
+     *
+     * @return The variant name.
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds a variant by its name, ignoring case.
+     *
+     * @param name The variant name.
+     * @return The matching variant.
+     * @throws IllegalArgumentException If no variant has this name.
+     */
+    public static ImageVariant fromName(String name) {
+        for (ImageVariant variant : values()) {
+            if (variant.name().equalsIgnoreCase(name)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown picture size: " + name);
+    }
+}
@@ -18,7 +18,10 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_rental_created_at_id", columnList = "rental_id, created_at, id"),
+        @Index(name = "idx_messages_user_created_at_id", columnList = "user_id, created_at, id")
+})
 @Schema(description = "Entity representing a user message related to a rental")
 public class Message {
 
@@ -67,4 +70,11 @@ public class Message {
     @Column(name= "updated_at", nullable = false)
     @Schema(description = "Timestamp of the last update", example = "2024-02-02T15:30:00")
     private LocalDateTime updatedAt = LocalDateTime.now();
+
+    /**
+     * Timestamp of when the rental owner read the message, null while unread.
+     */
+    @Column(name = "read_at")
+    @Schema(description = "Timestamp when the rental owner read the message", example = "2024-02-02T16:00:00")
+    private LocalDateTime readAt;
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.openclassrooms.chatop.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an issued refresh token. Only the SHA-256 hash of the token is stored.
+ * Every refresh consumes the token and issues the next one of the same family;
+ * presenting a consumed token again revokes the whole family.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@Schema(description = "Entity representing an issued refresh token")
+public class RefreshToken {
+
+    /**
+     * Unique identifier for the refresh token.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "Unique identifier of the refresh token", example = "1")
+    private Long id;
+
+    /**
+     * SHA-256 hash of the token.
+     */
+    @Column(name = "token_hash", columnDefinition = "BINARY(32)", nullable = false, unique = true)
+    @Schema(description = "SHA-256 hash of the token")
+    private byte[] tokenHash;
+
+    /**
+     * Identifier shared by the successive tokens obtained from one login.
+     */
+    @Column(name = "family_id", length = 36, nullable = false)
+    @Schema(description = "Identifier of the token family", example = "3f2b6c1e-7a4d-4c8e-9b1a-2d5e6f7a8b9c")
+    private String familyId;
+
+    /**
+     * ID of the user the token was issued to.
+     */
+    @Column(name = "user_id", nullable = false)
+    @Schema(description = "ID of the user", example = "1")
+    private Long userId;
+
+    /**
+     * Timestamp after which the token is rejected.
+     */
+    @Column(name = "expires_at", nullable = false)
+    @Schema(description = "Expiration timestamp of the token")
+    private LocalDateTime expiresAt;
+
+    /**
+     * Timestamp of when the token was exchanged, or null if it was not used yet.
+     */
+    @Column(name = "used_at")
+    @Schema(description = "Timestamp when the token was exchanged")
+    private LocalDateTime usedAt;
+}
@@ -21,7 +21,13 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+        @Index(name = "idx_rentals_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_rentals_owner_created_at_id", columnList = "owner_id, created_at, id"),
+        @Index(name = "idx_rentals_price", columnList = "price"),
+        @Index(name = "idx_rentals_surface", columnList = "surface"),
+        @Index(name = "idx_rentals_updated_at", columnList = "updated_at")
+})
 @Schema(description = "Entity representing a rental property")
 public class Rental {
 
@@ -0,0 +1,55 @@
+package com.openclassrooms.chatop.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity tracking how many rentals reference a content-addressed uploaded file.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stored_blobs")
+@Schema(description = "Entity tracking the references to an uploaded file")
+public class StoredBlob {
+
+    /**
+     * File name, made of the SHA-256 hash of the content and its extension.
+     */
+    @Id
+    @Column(name = "file_name", length = 80)
+    @Schema(description = "File name of the blob", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg")
+    private String fileName;
+
+    /**
+     * Number of references to the file. The file is deleted when it drops to zero.
+     */
+    @Column(name = "reference_count", nullable = false)
+    @Schema(description = "Number of references to the blob", example = "2")
+    private Integer referenceCount;
+
+    /**
+     * Size of the file in bytes.
+     */
+    @Column(nullable = false)
+    @Schema(description = "Size of the blob in bytes", example = "204800")
+    private Long size;
+
+    /**
+     * Timestamp of when the blob was first stored.
+     */
+    @Column(name = "created_at", nullable = false)
+    @Schema(description = "Timestamp when the blob was first stored")
+    private LocalDateTime createdAt;
+}
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -67,6 +68,15 @@ public class User implements UserDetails {
     @Schema(description = "User's role in the system", example = "USER")
     private Role role;
 
+    /**
+     * Version of the issued tokens; incrementing it revokes every token issued before.
+     */
+    @Column(name = "token_version", nullable = false)
+    @ColumnDefault("0")
+    @Schema(description = "Version of the tokens issued to the user", example = "0")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     /**
      * Timestamp of when the user was created.
      */
@@ -0,0 +1,21 @@
+package com.openclassrooms.chatop.repository;
+
+import com.openclassrooms.chatop.model.Message;
+
+import java.util.List;
+
+/**
+ * Bulk write operations on messages, added to {@link MessageRepository}.
+ */
+public interface MessageBatchRepository {
+
+    /**
+     * Inserts messages with multi-row INSERT statements, so a batch costs one round trip
+     * per chunk instead of one per message. Generated IDs are set on the given messages.
+     * The user and rental of each message only need to carry their ID.
+     *
+     * @param messages The messages to insert.
+     * @return Number of inserted rows.
+     */
+    int insertAll(List<Message> messages);
+}
@@ -0,0 +1,66 @@
+package com.openclassrooms.chatop.repository;
+
+import com.openclassrooms.chatop.model.Message;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link MessageBatchRepository}.
+ * Runs in the surrounding JPA transaction, which shares its connection with JdbcTemplate.
+ */
+@RequiredArgsConstructor
+public class MessageBatchRepositoryImpl implements MessageBatchRepository {
+
+    /**
+     * Maximum number of rows per statement, which keeps statements well below max_allowed_packet.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT_PREFIX = "INSERT INTO messages (message, user_id, rental_id, created_at, updated_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<Message> messages) {
+        int inserted = 0;
+        for (int from = 0; from < messages.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Message> chunk = messages.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, messages.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+            List<Object> parameters = new ArrayList<>(chunk.size() * 5);
+            for (int i = 0; i < chunk.size(); i++) {
+                Message message = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+                parameters.add(message.getMessage());
+                parameters.add(message.getUser().getId());
+                parameters.add(message.getRental().getId());
+                parameters.add(Timestamp.valueOf(message.getCreatedAt()));
+                parameters.add(Timestamp.valueOf(message.getUpdatedAt()));
+            }
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            inserted += jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                return statement;
+            }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size() && i < keys.size(); i++) {
+                chunk.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            }
+        }
+        return inserted;
+    }
+}
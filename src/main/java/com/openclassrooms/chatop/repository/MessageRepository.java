@@ -1,13 +1,175 @@
 package com.openclassrooms.chatop.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import com.openclassrooms.chatop.dto.MessageResponse;
 import com.openclassrooms.chatop.model.Message;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repository interface for managing Message entity operations.
  * Extends JpaRepository to provide basic CRUD functionality.
+ * Read queries project directly into {@link MessageResponse}, reading the user and rental IDs
+ * from the foreign key columns, so no User or Rental is ever loaded.
  */
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long> {
-}
\ No newline at end of file
+public interface MessageRepository extends JpaRepository<Message, Long>, MessageBatchRepository {
+
+    /**
+     * Finds the first page of the messages of a rental, newest first.
+     *
+     * @param rentalId The rental
+     * @param userId Sender of the messages, or null for every sender
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching messages ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT new com.openclassrooms.chatop.dto.MessageResponse(
+                m.id, m.message, m.user.id, m.rental.id, m.createdAt, m.updatedAt, m.readAt)
+            FROM Message m
+            WHERE m.rental.id = :rentalId
+              AND (:userId IS NULL OR m.user.id = :userId)
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<MessageResponse> findThreadFirstPage(
+            @Param("rentalId") Long rentalId,
+            @Param("userId") Long userId,
+            Pageable pageable);
+
+    /**
+     * Finds the page of the messages of a rental following the given keyset position, newest first.
+     * Seeks directly to the position using the (rental_id, created_at, id) index.
+     *
+     * @param rentalId The rental
+     * @param userId Sender of the messages, or null for every sender
+     * @param createdAt Creation date of the last message of the previous page
+     * @param id ID of the last message of the previous page
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching messages ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT new com.openclassrooms.chatop.dto.MessageResponse(
+                m.id, m.message, m.user.id, m.rental.id, m.createdAt, m.updatedAt, m.readAt)
+            FROM Message m
+            WHERE m.rental.id = :rentalId
+              AND (:userId IS NULL OR m.user.id = :userId)
+              AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<MessageResponse> findThreadPageAfter(
+            @Param("rentalId") Long rentalId,
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Finds the first page of the messages received on the rentals of an owner, newest first.
+     *
+     * @param ownerId Owner of the rentals
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching messages ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT new com.openclassrooms.chatop.dto.MessageResponse(
+                m.id, m.message, m.user.id, r.id, m.createdAt, m.updatedAt, m.readAt)
+            FROM Message m JOIN m.rental r
+            WHERE r.ownerId = :ownerId
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<MessageResponse> findInboxFirstPage(
+            @Param("ownerId") Long ownerId,
+            Pageable pageable);
+
+    /**
+     * Finds the page of the messages received on the rentals of an owner following the given
+     * keyset position, newest first.
+     *
+     * @param ownerId Owner of the rentals
+     * @param createdAt Creation date of the last message of the previous page
+     * @param id ID of the last message of the previous page
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching messages ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT new com.openclassrooms.chatop.dto.MessageResponse(
+                m.id, m.message, m.user.id, r.id, m.createdAt, m.updatedAt, m.readAt)
+            FROM Message m JOIN m.rental r
+            WHERE r.ownerId = :ownerId
+              AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<MessageResponse> findInboxPageAfter(
+            @Param("ownerId") Long ownerId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Finds the first page of the messages sent by a user, newest first.
+     *
+     * @param userId Sender of the messages
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching messages ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT new com.openclassrooms.chatop.dto.MessageResponse(
+                m.id, m.message, m.user.id, m.rental.id, m.createdAt, m.updatedAt, m.readAt)
+            FROM Message m
+            WHERE m.user.id = :userId
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<MessageResponse> findSentFirstPage(
+            @Param("userId") Long userId,
+            Pageable pageable);
+
+    /**
+     * Finds the page of the messages sent by a user following the given keyset position, newest first.
+     * Seeks directly to the position using the (user_id, created_at, id) index.
+     *
+     * @param userId Sender of the messages
+     * @param createdAt Creation date of the last message of the previous page
+     * @param id ID of the last message of the previous page
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching messages ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT new com.openclassrooms.chatop.dto.MessageResponse(
+                m.id, m.message, m.user.id, m.rental.id, m.createdAt, m.updatedAt, m.readAt)
+            FROM Message m
+            WHERE m.user.id = :userId
+              AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<MessageResponse> findSentPageAfter(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Counts the unread messages received on the rentals of an owner.
+     *
+     * @param ownerId Owner of the rentals
+     * @return Number of unread messages
+     */
+    @Query("SELECT COUNT(m) FROM Message m JOIN m.rental r WHERE r.ownerId = :ownerId AND m.readAt IS NULL")
+    long countUnreadByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Marks every unread message of a rental as read.
+     *
+     * @param rentalId The rental
+     * @param readAt Read timestamp to set
+     * @return Number of updated messages
+     */
+    @Modifying
+    @Query("UPDATE Message m SET m.readAt = :readAt WHERE m.rental.id = :rentalId AND m.readAt IS NULL")
+    int markThreadAsRead(@Param("rentalId") Long rentalId, @Param("readAt") LocalDateTime readAt);
+}
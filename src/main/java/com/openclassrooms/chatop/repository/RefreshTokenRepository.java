@@ -0,0 +1,75 @@
+package com.openclassrooms.chatop.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.chatop.model.RefreshToken;
+
+/**
+ * Repository interface for refresh tokens.
+ * A token is consumed with a single conditional UPDATE, so two concurrent refreshes
+ * with the same token can never both succeed.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Finds a refresh token by the hash of its value.
+     *
+     * @param tokenHash SHA-256 hash of the token.
+     * @return Optional containing the token if found.
+     */
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Marks a refresh token as used, unless it already was.
+     *
+     * @param id The token ID.
+     * @param usedAt Use timestamp to set.
+     * @return Number of updated rows: 0 if the token was already used.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.usedAt = :usedAt WHERE t.id = :id AND t.usedAt IS NULL")
+    int markAsUsed(@Param("id") Long id, @Param("usedAt") LocalDateTime usedAt);
+
+    /**
+     * Deletes every token of a family.
+     *
+     * @param familyId The family.
+     * @return Number of deleted rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    /**
+     * Deletes every token of a user.
+     *
+     * @param userId The user ID.
+     * @return Number of deleted rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes the tokens expired before the given date.
+     *
+     * @param now Current timestamp.
+     * @return Number of deleted rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
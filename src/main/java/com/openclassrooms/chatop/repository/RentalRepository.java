@@ -1,8 +1,20 @@
 package com.openclassrooms.chatop.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import com.openclassrooms.chatop.dto.RentalCatalogVersion;
 import com.openclassrooms.chatop.model.Rental;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Rental entity operations.
@@ -10,4 +22,105 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Number of rows fetched per round trip by {@link #streamAll()}.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Finds the first page of rentals matching the given filters, newest first.
+     * Null filter values are ignored.
+     *
+     * @param minPrice Minimum price (inclusive)
+     * @param maxPrice Maximum price (inclusive)
+     * @param minSurface Minimum surface (inclusive)
+     * @param maxSurface Maximum surface (inclusive)
+     * @param ownerId Owner of the rentals
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching rentals ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT r FROM Rental r
+            WHERE (:minPrice IS NULL OR r.price >= :minPrice)
+              AND (:maxPrice IS NULL OR r.price <= :maxPrice)
+              AND (:minSurface IS NULL OR r.surface >= :minSurface)
+              AND (:maxSurface IS NULL OR r.surface <= :maxSurface)
+              AND (:ownerId IS NULL OR r.ownerId = :ownerId)
+            ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<Rental> findFirstPage(
+            @Param("minPrice") Integer minPrice,
+            @Param("maxPrice") Integer maxPrice,
+            @Param("minSurface") Integer minSurface,
+            @Param("maxSurface") Integer maxSurface,
+            @Param("ownerId") Long ownerId,
+            Pageable pageable);
+
+    /**
+     * Finds the page of rentals following the given keyset position, newest first.
+     * Seeks directly to the position using the (created_at, id) indexes instead of an OFFSET scan.
+     *
+     * @param minPrice Minimum price (inclusive)
+     * @param maxPrice Maximum price (inclusive)
+     * @param minSurface Minimum surface (inclusive)
+     * @param maxSurface Maximum surface (inclusive)
+     * @param ownerId Owner of the rentals
+     * @param createdAt Creation date of the last rental of the previous page
+     * @param id ID of the last rental of the previous page
+     * @param pageable Page size limit (only the size is used)
+     * @return Matching rentals ordered by creation date then ID, descending
+     */
+    @Query("""
+            SELECT r FROM Rental r
+            WHERE (:minPrice IS NULL OR r.price >= :minPrice)
+              AND (:maxPrice IS NULL OR r.price <= :maxPrice)
+              AND (:minSurface IS NULL OR r.surface >= :minSurface)
+              AND (:maxSurface IS NULL OR r.surface <= :maxSurface)
+              AND (:ownerId IS NULL OR r.ownerId = :ownerId)
+              AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))
+            ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<Rental> findPageAfter(
+            @Param("minPrice") Integer minPrice,
+            @Param("maxPrice") Integer maxPrice,
+            @Param("minSurface") Integer minSurface,
+            @Param("maxSurface") Integer maxSurface,
+            @Param("ownerId") Long ownerId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Streams every rental ordered by ID without materializing the result list.
+     * Rows are fetched by batches of {@value #STREAM_FETCH_SIZE} instead of buffering the whole
+     * result set; with MySQL this needs the useCursorFetch connection property, set on the data source.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return A stream over all rentals
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Rental r ORDER BY r.id")
+    Stream<Rental> streamAll();
+
+    /**
+     * Computes the current version of the whole catalogue.
+     * Answered from the updated_at index without reading rental rows.
+     *
+     * @return The number of rentals and the most recent update date
+     */
+    @Query("SELECT new com.openclassrooms.chatop.dto.RentalCatalogVersion(COUNT(r), MAX(r.updatedAt)) FROM Rental r")
+    RentalCatalogVersion findCatalogVersion();
+
+    /**
+     * Reads the last update date of a rental, by primary key and without loading the row into the context.
+     *
+     * @param id The rental ID
+     * @return The last update date, or empty if the rental does not exist
+     */
+    @Query("SELECT r.updatedAt FROM Rental r WHERE r.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+}
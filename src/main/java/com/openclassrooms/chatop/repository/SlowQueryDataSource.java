@@ -0,0 +1,159 @@
+package com.openclassrooms.chatop.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.openclassrooms.chatop.service.SlowQueryLog;
+
+/**
+ * Data source timing the statements of its connections for the slow query log, whether they come
+ * from Hibernate or from a JdbcTemplate. While the log is inactive, connections are returned
+ * unwrapped, so the only cost is one check per borrowed connection.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Resolved on first use: the log is a regular bean, created after the data source.
+     */
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+
+    public SlowQueryDataSource(DataSource targetDataSource, ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        super(targetDataSource);
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        SlowQueryLog slowQueryLog = slowQueryLogProvider.getIfAvailable();
+        if (slowQueryLog == null || !slowQueryLog.isActive()) {
+            return connection;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, slowQueryLog));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements created by a connection.
+     */
+    private record ConnectionHandler(Connection target, SlowQueryLog slowQueryLog) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement, sql, slowQueryLog));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, sql, slowQueryLog));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, null, slowQueryLog));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Records the bind parameters of a statement and times its executions.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final SlowQueryLog slowQueryLog;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private String sql;
+        private int batchSize;
+
+        StatementHandler(Statement target, String sql, SlowQueryLog slowQueryLog) {
+            this.target = target;
+            this.sql = sql;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            return SlowQueryDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            if (args != null && args.length > 0 && args[0] instanceof String text) {
+                sql = text;
+            }
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                Object result = SlowQueryDataSource.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                slowQueryLog.record(sql, parameters.values(), batchSize, System.nanoTime() - start, failed);
+                if (method.getName().equals("executeBatch") || method.getName().equals("executeLargeBatch")) {
+                    batchSize = 0;
+                }
+            }
+        }
+    }
+}
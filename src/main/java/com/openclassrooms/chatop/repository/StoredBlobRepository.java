@@ -0,0 +1,57 @@
+package com.openclassrooms.chatop.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.chatop.model.StoredBlob;
+
+/**
+ * Repository interface for the reference counts of uploaded files.
+ * Counts are only changed through single atomic statements, so concurrent uploads
+ * and deletions of the same content never lose an update.
+ */
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Adds a reference to a blob, creating it with a single reference if it is unknown.
+     *
+     * @param fileName Name of the blob.
+     * @param size Size of the blob in bytes.
+     * @return Number of affected rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO stored_blobs (file_name, reference_count, size, created_at)
+            VALUES (:fileName, 1, :size, NOW())
+            ON DUPLICATE KEY UPDATE reference_count = reference_count + 1
+            """, nativeQuery = true)
+    int addReference(@Param("fileName") String fileName, @Param("size") long size);
+
+    /**
+     * Removes a reference to a blob.
+     *
+     * @param fileName Name of the blob.
+     * @return Number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredBlob b SET b.referenceCount = b.referenceCount - 1 WHERE b.fileName = :fileName AND b.referenceCount > 0")
+    int removeReference(@Param("fileName") String fileName);
+
+    /**
+     * Deletes a blob once nothing references it anymore.
+     *
+     * @param fileName Name of the blob.
+     * @return Number of deleted rows: 1 if the blob became unreferenced.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredBlob b WHERE b.fileName = :fileName AND b.referenceCount = 0")
+    int deleteIfUnreferenced(@Param("fileName") String fileName);
+}
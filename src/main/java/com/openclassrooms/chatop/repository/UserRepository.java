@@ -2,6 +2,9 @@ package com.openclassrooms.chatop.repository;
 
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.openclassrooms.chatop.model.User;
 import org.springframework.stereotype.Repository;
@@ -19,4 +22,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Optional containing the user if found.
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Replaces the password hash of a user.
+     *
+     * @param id The user ID.
+     * @param password The new password hash.
+     * @return Number of updated rows.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Increments the token version of a user, revoking every token issued before.
+     *
+     * @param id The user ID.
+     * @return Number of updated rows.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
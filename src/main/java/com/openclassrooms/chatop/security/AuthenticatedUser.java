@@ -0,0 +1,66 @@
+package com.openclassrooms.chatop.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.openclassrooms.chatop.model.Role;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lightweight principal rebuilt from verified JWT claims, without loading the user from the database.
+ */
+@Getter
+@RequiredArgsConstructor
+public class AuthenticatedUser implements UserDetails {
+
+    /**
+     * ID of the authenticated user.
+     */
+    private final Long id;
+
+    /**
+     * Email of the authenticated user.
+     */
+    private final String email;
+
+    /**
+     * Role of the authenticated user.
+     */
+    private final Role role;
+
+    /**
+     * Returns the authorities granted to the user based on their role.
+     *
+     * @return A collection of granted authorities.
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    /**
+     * Returns the email as the username for authentication purposes.
+     *
+     * @return The user's email.
+     */
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    /**
+     * No password is carried by a token-based principal.
+     *
+     * @return Always null.
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.openclassrooms.chatop.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.chatop.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * BCrypt password encoder running every hash on a dedicated pool sized to the CPU.
+ * A login or registration storm can then only use the hashing threads instead of every request
+ * thread; once the bounded queue is full, further requests are rejected at once with 503.
+ * Records the hashing latency, queue depth and rejections as metrics.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abyx]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param strength BCrypt work factor.
+     * @param threads Number of hashing threads.
+     * @param queueCapacity Maximum number of hashes waiting for a thread.
+     * @param meterRegistry Registry of the hashing metrics.
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 1).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejectedCounter = Counter.builder("chatop.password.hash.rejected")
+                .description("Password hashes rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("chatop.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("chatop.password.hash")
+                .description("Time spent computing password hashes, excluding the wait in the queue")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Requests a rehash of stored passwords whose cost differs from the configured one,
+     * whether it was raised or lowered.
+     *
+     * @param encodedPassword The stored hash.
+     * @return true if the password must be hashed again.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * Returns the number of hashes computed since startup.
+     *
+     * @return The number of hashes.
+     */
+    public long getHashCount() {
+        return encodeTimer.count() + matchesTimer.count();
+    }
+
+    /**
+     * Returns the average time spent computing a hash, excluding the wait in the queue.
+     *
+     * @return The average duration in milliseconds.
+     */
+    public double getAverageHashMillis() {
+        long count = getHashCount();
+        return count == 0 ? 0
+                : (encodeTimer.totalTime(TimeUnit.MILLISECONDS) + matchesTimer.totalTime(TimeUnit.MILLISECONDS)) / count;
+    }
+
+    /**
+     * Returns the longest time spent computing a hash over the recent window of the timers.
+     *
+     * @return The maximum duration in milliseconds.
+     */
+    public double getMaxHashMillis() {
+        return Math.max(encodeTimer.max(TimeUnit.MILLISECONDS), matchesTimer.max(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Returns the number of hashes waiting for a thread.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of requests rejected because the queue was full.
+     *
+     * @return The number of rejections.
+     */
+    public long getRejectedCount() {
+        return (long) rejectedCounter.count();
+    }
+
+    /**
+     * Runs a hashing operation on the pool and waits for its result.
+     *
+     * @param timer The timer recording the operation.
+     * @param operation The hashing operation.
+     * @return The result of the operation.
+     * @throws ServiceBusyException If the queue is full.
+     */
+    private <T> T hash(Timer timer, Callable<T> operation) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(operation));
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            log.warn("Password hashing rejected: {} operations queued", executor.getQueue().size());
+            throw new ServiceBusyException("Too many authentication requests, please retry");
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password hashing interrupted, please retry");
+        }
+    }
+
+    /**
+     * Lets queued hashes finish before shutting down.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
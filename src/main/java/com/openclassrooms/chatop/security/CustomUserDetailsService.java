@@ -1,11 +1,12 @@
 package com.openclassrooms.chatop.security;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.openclassrooms.chatop.repository.UserRepository;
+import com.openclassrooms.chatop.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,9 +15,9 @@ import lombok.RequiredArgsConstructor;
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
 
     /**
      * Loads a user by email address for authentication.
@@ -27,7 +28,35 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
+        return userService.findAccountByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
+
+    /**
+     * Stores a password hashed again with the configured cost, after a successful login.
+     *
+     * @param user The authenticated user
+     * @param newPassword The new password hash
+     * @return The user with its new password hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserAccount current = (UserAccount) user;
+        userService.updatePassword(current, newPassword);
+        return current.withPassword(newPassword);
+    }
+
+    /**
+     * Checks that a token version is still the current one for the given user.
+     * Served from the user cache: revocations made on another node are seen once the entry expires.
+     *
+     * @param userId ID of the user
+     * @param tokenVersion Version carried by the token
+     * @return true if the user exists and the version matches
+     */
+    public boolean isTokenVersionCurrent(Long userId, Integer tokenVersion) {
+        return userService.findAccountById(userId)
+                .map(account -> account.tokenVersion().equals(tokenVersion))
+                .orElse(false);
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.openclassrooms.chatop.security;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,6 +12,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.chatop.config.JwtProperties;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +29,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final JwtProperties jwtProperties;
+    private final StreamTicketService streamTicketService;
+
+    /**
+     * Path of the message stream. Browsers cannot set headers on an EventSource,
+     * so this path also accepts a single-use stream ticket as a query parameter.
+     */
+    private static final String MESSAGE_STREAM_PATH = "/api/messages/stream";
 
     /**
      * Paths excluded from JWT authentication.
@@ -33,6 +44,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final List<String> EXCLUDED_PATHS = Arrays.asList(
             "/api/auth/register",
             "/api/auth/login",
+            "/api/auth/refresh",
             "/swagger-ui",
             "/v3/api-docs",
             "/swagger-ui/index.html"
@@ -66,36 +78,83 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract JWT token from Authorization header
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
-        // Skip authentication if no JWT token is present
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            // Extract token (remove "Bearer " prefix)
+            jwt = authHeader.substring(7);
+        } else if (MESSAGE_STREAM_PATH.equals(request.getRequestURI()) && request.getParameter("ticket") != null) {
+            streamTicketService.redeem(request.getParameter("ticket"))
+                    .ifPresent(principal -> authenticate(principal, request));
+            filterChain.doFilter(request, response);
+            return;
+        } else {
+            // Skip authentication if no JWT token is present
             filterChain.doFilter(request, response);
             return;
         }
 
-        // Extract token (remove "Bearer " prefix)
-        jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-
-        // Process authentication only if user is not already authenticated
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-            // Validate token and set security context if valid
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,  // Credentials are not needed here
-                        userDetails.getAuthorities()
-                );
-                // Add request details to authentication token
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                // Set authentication in security context
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        // Verify the token in a single parse
+        Optional<VerifiedToken> verifiedToken = jwtService.verifyToken(jwt);
+
+        // Process authentication only if the token is valid and user is not already authenticated
+        if (verifiedToken.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(verifiedToken.get());
+            if (userDetails == null) {
+                // Token has been revoked
+                filterChain.doFilter(request, response);
+                return;
             }
+
+            authenticate(userDetails, request);
         }
         // Continue filter chain
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Sets the authentication of the request in the security context.
+     *
+     * @param userDetails The authenticated principal
+     * @param request Current HTTP request
+     */
+    private void authenticate(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,  // Credentials are not needed here
+                userDetails.getAuthorities()
+        );
+        // Add request details to authentication token
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        // Set authentication in security context
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    /**
+     * Builds the principal of a verified token.
+     * In claims mode, the principal is rebuilt from the token alone; tokens issued without
+     * the user claims fall back to a database lookup. A token whose version is older than the
+     * account's has been revoked by a logout.
+     *
+     * @param verifiedToken The verified token
+     * @return The principal, or null if the token has been revoked
+     */
+    private UserDetails resolvePrincipal(VerifiedToken verifiedToken) {
+        if (jwtProperties.getPrincipalSource() == JwtProperties.PrincipalSource.CLAIMS
+                && verifiedToken.getUserId() != null
+                && verifiedToken.getRole() != null) {
+            if (jwtProperties.isRevocationCheck()
+                    && !userDetailsService.isTokenVersionCurrent(verifiedToken.getUserId(), verifiedToken.getTokenVersion())) {
+                return null;
+            }
+            return new AuthenticatedUser(verifiedToken.getUserId(), verifiedToken.getSubject(), verifiedToken.getRole());
+        }
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(verifiedToken.getSubject());
+        // The account is loaded anyway, so its version is always checked
+        if (verifiedToken.getTokenVersion() != null
+                && userDetails instanceof UserAccount account
+                && !account.tokenVersion().equals(verifiedToken.getTokenVersion())) {
+            return null;
+        }
+        return userDetails;
+    }
 }
@@ -4,37 +4,136 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.openclassrooms.chatop.config.JwtProperties;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service for JWT operations, including token generation, validation, and claims extraction.
+ * Signing and verification are timed; verifications are tagged with their result
+ * (cached, valid or invalid).
  */
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
+    /**
+     * Claim holding the user ID.
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Claim holding the user role.
+     */
+    public static final String ROLE_CLAIM = "role";
+
+    /**
+     * Claim holding the user token version, used for revocation.
+     */
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final JwtProperties jwtProperties;
 
+    /**
+     * HMAC-SHA key decoded once from the configured secret.
+     */
+    private final Key signInKey;
+
+    /**
+     * Thread-safe parser reused for every verification.
+     */
+    private final JwtParser jwtParser;
+
+    /**
+     * Recently verified tokens, keyed by the full compact token so a cached entry can never
+     * vouch for a different header or payload. Entries expire with the token at the latest.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    private final Timer signTimer;
+    private final Timer verifyCachedTimer;
+    private final Timer verifyValidTimer;
+    private final Timer verifyInvalidTimer;
+
+    public JwtService(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.jwtProperties = jwtProperties;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecretKey()));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedCacheMaxSize())
+                .expireAfter(new VerifiedTokenExpiry(TimeUnit.MILLISECONDS.toNanos(jwtProperties.getVerifiedCacheTtl())))
+                .build();
+        this.signTimer = Timer.builder("chatop.jwt.sign")
+                .description("Time spent signing JWT tokens")
+                .register(meterRegistry);
+        this.verifyCachedTimer = verifyTimer(meterRegistry, "cached");
+        this.verifyValidTimer = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalidTimer = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("chatop.jwt.verify")
+                .description("Time spent verifying JWT tokens")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies a JWT token (signature and expiration) and parses its claims in a single pass.
+     * Tokens verified recently are served from memory without recomputing the signature.
+     *
+     * @param token JWT token
+     * @return The verified token, or empty if the token is malformed, forged or expired
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        long start = System.nanoTime();
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            verifyCachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached.isExpired() ? Optional.empty() : Optional.of(cached);
+        }
+
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            VerifiedToken verifiedToken = new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims);
+            verifiedTokens.put(token, verifiedToken);
+            verifyValidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(verifiedToken);
+        } catch (JwtException | IllegalArgumentException ex) {
+            verifyInvalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        }
+    }
+
     /**
      * Extracts the username (email) from a given JWT token.
      *
      * @param token JWT token
-     * @return Extracted username
+     * @return Extracted username, or null if the token is invalid
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verifyToken(token)
+                .map(VerifiedToken::getSubject)
+                .orElse(null);
     }
 
     /**
@@ -42,21 +141,31 @@ public class JwtService {
      *
      * @param token JWT token
      * @param claimsResolver Function to extract claim
-     * @return Extracted claim value
+     * @return Extracted claim value, or null if the token is invalid
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return verifyToken(token)
+                .map(VerifiedToken::getClaims)
+                .map(claimsResolver)
+                .orElse(null);
     }
 
     /**
      * Generates a JWT token for the given user details.
+     * For application users, the ID, role and token version are embedded as claims
+     * so that requests can be authenticated without loading the user.
      *
      * @param userDetails User details
      * @return Generated JWT token
      */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserAccount account) {
+            claims.put(USER_ID_CLAIM, account.id());
+            claims.put(ROLE_CLAIM, account.role().name());
+            claims.put(TOKEN_VERSION_CLAIM, account.tokenVersion());
+        }
+        return generateToken(claims, userDetails);
     }
 
     /**
@@ -67,70 +176,57 @@ public class JwtService {
      * @return Generated JWT token
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts
+        return signTimer.record(() -> Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration()))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .signWith(signInKey, SignatureAlgorithm.HS256)
+                .compact());
     }
 
     /**
-     * Validates a JWT token by checking its expiration and matching username.
+     * Validates a JWT token by checking its signature, expiration and matching username.
      *
      * @param token JWT token
      * @param userDetails User details
      * @return true if token is valid, otherwise false
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return verifyToken(token)
+                .map(verifiedToken -> verifiedToken.getSubject().equals(userDetails.getUsername()))
+                .orElse(false);
     }
 
     /**
-     * Checks if a JWT token is expired.
-     *
-     * @param token JWT token
-     * @return true if token is expired, otherwise false
+     * Expires cached tokens after the configured TTL, or when the token itself expires if sooner.
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
 
-    /**
-     * Extracts the expiration date from a JWT token.
-     *
-     * @param token JWT token
-     * @return Expiration date of the token
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+        private final long maxTtlNanos;
 
-    /**
-     * Extracts all claims from a JWT token.
-     *
-     * @param token JWT token
-     * @return Claims object containing all claims
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
+        VerifiedTokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
 
-    /**
-     * Retrieves the signing key used for JWT token encryption.
-     *
-     * @return HMAC-SHA key used for signing the JWT token
-     */
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecretKey());
-        return Keys.hmacShaKeyFor(keyBytes);
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verifiedToken, long currentTime) {
+            if (verifiedToken.getExpiration() == null) {
+                return maxTtlNanos;
+            }
+            long remainingMillis = verifiedToken.getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
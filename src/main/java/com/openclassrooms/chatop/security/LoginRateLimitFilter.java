@@ -0,0 +1,70 @@
+package com.openclassrooms.chatop.security;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.exception.TooManyRequestsException;
+import com.openclassrooms.chatop.service.LoginRateLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Filter limiting the login and registration attempts per client IP address,
+ * before the request body is even read.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Paths whose attempts are limited.
+     */
+    private static final List<String> LIMITED_PATHS = List.of(
+            "/api/auth/login",
+            "/api/auth/register"
+    );
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        return !LIMITED_PATHS.contains(request.getRequestURI());
+    }
+
+    /**
+     * Rejects the request with 429 Too Many Requests when its client IP address has no attempt left.
+     *
+     * @param request Current HTTP request
+     * @param response Current HTTP response
+     * @param filterChain Filter chain to continue processing
+     */
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        try {
+            loginRateLimiter.checkIp(request.getRemoteAddr());
+        } catch (TooManyRequestsException ex) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Map.of("error", ex.getMessage()));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.chatop.security;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.openclassrooms.chatop.config.QueryInspectionProperties;
+import com.openclassrooms.chatop.service.QueryInspector;
+import com.openclassrooms.chatop.service.QueryStatistics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filter counting the Hibernate statements of each request, including those of the authentication
+ * filters. Requests running many statements, or the same statement several times, are logged with
+ * the repeated statements and lazy loads.
+ */
+@Component
+@ConditionalOnProperty(name = "application.query-inspection.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class QueryInspectionFilter extends OncePerRequestFilter {
+
+    private final QueryInspector queryInspector;
+    private final QueryInspectionProperties queryInspectionProperties;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        QueryStatistics statistics = queryInspector.beginScope();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryInspector.endScope();
+            String endpoint = request.getMethod() + " " + request.getRequestURI();
+            if (statistics.getDuplicateCount() > 0 || statistics.getStatementCount() > queryInspectionProperties.getWarnThreshold()) {
+                log.warn("{}: {}", endpoint, statistics.report());
+            } else if (log.isDebugEnabled()) {
+                log.debug("{}: {}", endpoint, statistics.summary());
+            }
+        }
+    }
+}
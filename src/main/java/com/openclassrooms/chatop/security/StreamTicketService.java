@@ -0,0 +1,75 @@
+package com.openclassrooms.chatop.security;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.chatop.config.RealtimeProperties;
+
+/**
+ * Issues the tickets that open the message stream. Browsers cannot set headers on an EventSource,
+ * so the stream is opened with a ticket in its URL instead of the JWT: a ticket is random, expires
+ * after a few seconds and can be redeemed only once, so a URL leaked to a log or a proxy is useless.
+ * Tickets are kept in memory: the stream must be opened on the instance that issued its ticket.
+ */
+@Service
+public class StreamTicketService {
+
+    private static final int TICKET_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Principal of each outstanding ticket.
+     */
+    private final Cache<String, UserDetails> tickets;
+
+    private final Duration ticketTtl;
+
+    public StreamTicketService(RealtimeProperties realtimeProperties) {
+        this.ticketTtl = Duration.ofMillis(realtimeProperties.getStreamTicketTtl());
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(realtimeProperties.getStreamTicketMaxOutstanding())
+                .expireAfterWrite(ticketTtl)
+                .build();
+    }
+
+    /**
+     * Issues a ticket for a principal.
+     *
+     * @param principal The authenticated principal the stream is opened for.
+     * @return The ticket.
+     */
+    public String issue(UserDetails principal) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        secureRandom.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, principal);
+        return ticket;
+    }
+
+    /**
+     * Redeems a ticket. A ticket can be redeemed only once.
+     *
+     * @param ticket The ticket.
+     * @return The principal the ticket was issued for, or empty if it is unknown, expired or already used.
+     */
+    public Optional<UserDetails> redeem(String ticket) {
+        return Optional.ofNullable(tickets.asMap().remove(ticket));
+    }
+
+    /**
+     * Returns how long a ticket remains valid.
+     *
+     * @return The lifetime of a ticket.
+     */
+    public Duration getTicketTtl() {
+        return ticketTtl;
+    }
+}
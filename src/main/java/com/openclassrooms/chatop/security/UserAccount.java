@@ -0,0 +1,85 @@
+package com.openclassrooms.chatop.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.openclassrooms.chatop.model.Role;
+import com.openclassrooms.chatop.model.User;
+
+/**
+ * Immutable snapshot of a user, safe to cache and share between requests: it carries the
+ * authentication data and the profile returned by {@code /api/auth/me}.
+ * Write paths load the User entity instead.
+ *
+ * @param id ID of the user.
+ * @param email Email of the user, used as username.
+ * @param name Full name of the user.
+ * @param role Role of the user.
+ * @param tokenVersion Version of the tokens issued to the user.
+ * @param password Password hash of the user.
+ * @param createdAt Creation timestamp of the user.
+ * @param updatedAt Last update timestamp of the user.
+ */
+public record UserAccount(Long id, String email, String name, Role role, Integer tokenVersion, String password,
+        String createdAt, String updatedAt) implements UserDetails {
+
+    /**
+     * Copies the authentication data and the profile of a user entity.
+     *
+     * @param user The user entity.
+     * @return The snapshot.
+     */
+    public static UserAccount from(User user) {
+        return new UserAccount(user.getId(), user.getEmail(), user.getName(), user.getRole(), user.getTokenVersion(),
+                user.getPassword(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    /**
+     * Returns a copy of this account with another password hash.
+     *
+     * @param newPassword The new password hash.
+     * @return The updated copy.
+     */
+    public UserAccount withPassword(String newPassword) {
+        return new UserAccount(id, email, name, role, tokenVersion, newPassword, createdAt, updatedAt);
+    }
+
+    /**
+     * Returns the authorities granted to the user based on their role.
+     *
+     * @return A collection of granted authorities.
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    /**
+     * Returns the email as the username for authentication purposes.
+     *
+     * @return The user's email.
+     */
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Hides the password hash from logs.
+     *
+     * @return The account without its password hash.
+     */
+    @Override
+    public String toString() {
+        return "UserAccount[id=" + id + ", email=" + email + ", role=" + role + ", tokenVersion=" + tokenVersion + "]";
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.chatop.security;
+
+import java.util.Date;
+
+import com.openclassrooms.chatop.model.Role;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JWT token whose signature and expiration have been checked, with its claims already parsed.
+ */
+@Getter
+@RequiredArgsConstructor
+public class VerifiedToken {
+
+    /**
+     * Subject of the token (user email).
+     */
+    private final String subject;
+
+    /**
+     * Expiration date of the token.
+     */
+    private final Date expiration;
+
+    /**
+     * All claims carried by the token.
+     */
+    private final Claims claims;
+
+    /**
+     * Checks whether the token has expired.
+     *
+     * @return true if the expiration date is in the past
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * Returns the user ID claim.
+     *
+     * @return The user ID, or null for tokens issued without it
+     */
+    public Long getUserId() {
+        return claims.get(JwtService.USER_ID_CLAIM, Long.class);
+    }
+
+    /**
+     * Returns the role claim.
+     *
+     * @return The user role, or null for tokens issued without it
+     */
+    public Role getRole() {
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+        return role != null ? Role.valueOf(role) : null;
+    }
+
+    /**
+     * Returns the token version claim.
+     *
+     * @return The token version, or null for tokens issued without it
+     */
+    public Integer getTokenVersion() {
+        return claims.get(JwtService.TOKEN_VERSION_CLAIM, Integer.class);
+    }
+}
@@ -8,14 +8,16 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import com.openclassrooms.chatop.dto.AuthenticationRequest;
 import com.openclassrooms.chatop.dto.AuthenticationResponse;
+import com.openclassrooms.chatop.dto.RefreshTokenRequest;
 import com.openclassrooms.chatop.dto.RegisterRequest;
 import com.openclassrooms.chatop.model.User;
-import com.openclassrooms.chatop.repository.UserRepository;
+import com.openclassrooms.chatop.security.AuthenticatedUser;
+import com.openclassrooms.chatop.security.UserAccount;
 import com.openclassrooms.chatop.security.JwtService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,29 +29,35 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AuthService {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final UserMapper userMapper;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Registers a new user, encodes their password, assigns a role, and generates a JWT token.
      *
      * @param request The registration request containing user details.
      * @return AuthenticationResponse containing the generated JWT token.
+     * @throws com.openclassrooms.chatop.exception.TooManyRequestsException If too many attempts were made for this email.
      */
     public AuthenticationResponse register(RegisterRequest request) {
+        loginRateLimiter.checkEmail(request.getEmail());
+
         // Use the mapper to convert from DTO to entity
         User user = userMapper.toEntity(request);
 
         // Save the user entity
-        userRepository.save(user);
+        userService.save(user);
 
         // Generate JWT token
-        String jwtToken = jwtService.generateToken(user);
+        String jwtToken = jwtService.generateToken(UserAccount.from(user));
 
         return AuthenticationResponse.builder()
                 .token(jwtToken)
+                .refreshToken(refreshTokenService.issue(user.getId()))
                 .build();
     }
 
@@ -58,35 +66,95 @@ public class AuthService {
      *
      * @param request The authentication request containing email and password.
      * @return AuthenticationResponse containing the generated JWT token.
+     * @throws com.openclassrooms.chatop.exception.TooManyRequestsException If too many attempts were made for this email.
      */
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        authenticationManager.authenticate(
+        loginRateLimiter.checkEmail(request.getEmail());
+
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
         );
 
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow();
+        // The provider already loaded the user to check the password
+        var account = (UserAccount) authentication.getPrincipal();
 
-        var jwtToken = jwtService.generateToken(user);
+        var jwtToken = jwtService.generateToken(account);
 
         return AuthenticationResponse.builder()
                 .token(jwtToken)
+                .refreshToken(refreshTokenService.issue(account.id()))
                 .build();
     }
 
     /**
-     * Retrieves the currently authenticated user.
+     * Exchanges a refresh token for a new JWT token and the next refresh token.
+     * The user is read from the user cache; the password is never checked again.
      *
-     * @return The authenticated User object.
-     * @throws RuntimeException if the user is not found.
+     * @param request The refresh request containing the refresh token.
+     * @return AuthenticationResponse containing the new tokens.
+     * @throws BadCredentialsException If the refresh token is invalid, expired or already used.
      */
-    public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
+    public AuthenticationResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        UserAccount account = userService.findAccountById(rotation.userId())
+                .orElseThrow(() -> new BadCredentialsException("User not found"));
+
+        return AuthenticationResponse.builder()
+                .token(jwtService.generateToken(account))
+                .refreshToken(rotation.refreshToken())
+                .build();
+    }
+
+    /**
+     * Retrieves the account of the currently authenticated user, from the user cache.
+     *
+     * @return The account of the authenticated user.
+     * @throws BadCredentialsException if the user is not found.
+     */
+    public UserAccount getCurrentUser() {
+        return userService.findAccountById(getCurrentUserId())
                 .orElseThrow(() -> new BadCredentialsException("User not found"));
     }
+
+    /**
+     * Retrieves the ID of the currently authenticated user without loading the user.
+     *
+     * @return The ID of the authenticated user.
+     * @throws BadCredentialsException if no user is authenticated.
+     */
+    public Long getCurrentUserId() {
+        return switch (getCurrentPrincipal()) {
+            case AuthenticatedUser user -> user.getId();
+            case UserAccount account -> account.id();
+            default -> throw new BadCredentialsException("User not authenticated");
+        };
+    }
+
+    /**
+     * Retrieves the principal of the current request, as built by the authentication filter.
+     *
+     * @return The authenticated principal.
+     * @throws BadCredentialsException if no user is authenticated.
+     */
+    public UserDetails getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserDetails principal)) {
+            throw new BadCredentialsException("User not authenticated");
+        }
+        return principal;
+    }
+
+    /**
+     * Revokes every token issued to the current user by incrementing their token version,
+     * and deletes their refresh tokens.
+     */
+    public void revokeCurrentUserTokens() {
+        UserAccount account = getCurrentUser();
+        userService.revokeTokens(account);
+        refreshTokenService.revokeAll(account.id());
+    }
 }
\ No newline at end of file
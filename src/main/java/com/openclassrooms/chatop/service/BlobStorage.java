@@ -0,0 +1,81 @@
+package com.openclassrooms.chatop.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage backend of uploaded files. Files are addressed by a key made of
+ * slash-separated segments, such as "ab/cd/abcd....jpg".
+ */
+public interface BlobStorage {
+
+    /**
+     * Stores the content of a local file. The local storage moves the source file into place;
+     * remote storages leave it untouched, and callers delete it once done with it.
+     *
+     * @param key Key of the file.
+     * @param source Local file to store.
+     * @param contentType MIME type of the content.
+     * @throws IOException If the file cannot be stored.
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * Stores generated content.
+     *
+     * @param key Key of the file.
+     * @param content Content of the file.
+     * @param contentType MIME type of the content.
+     * @throws IOException If the content cannot be stored.
+     */
+    void put(String key, byte[] content, String contentType) throws IOException;
+
+    /**
+     * Checks whether a file exists.
+     *
+     * @param key Key of the file.
+     * @return true if the file exists.
+     * @throws IOException If the storage cannot be reached.
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Deletes a file if it exists.
+     *
+     * @param key Key of the file.
+     * @throws IOException If the file cannot be deleted.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Retrieves a file as a Resource.
+     *
+     * @param key Key of the file.
+     * @return File as a Resource.
+     * @throws IOException If the file is not found or cannot be read.
+     */
+    Resource load(String key) throws IOException;
+
+    /**
+     * Returns the location of a file on the local disk, for backends storing files locally.
+     *
+     * @param key Key of the file.
+     * @return Path of the file, or empty if files are stored remotely.
+     * @throws IOException If the key points outside the storage.
+     */
+    Optional<Path> localPath(String key) throws IOException;
+
+    /**
+     * Returns a short-lived URL from which clients can download a file directly,
+     * for backends supporting it.
+     *
+     * @param key Key of the file.
+     * @return Presigned URL, or empty if downloads must go through the application.
+     * @throws IOException If the URL cannot be signed.
+     */
+    Optional<URI> presignedUrl(String key) throws IOException;
+}
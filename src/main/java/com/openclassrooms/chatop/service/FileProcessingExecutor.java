@@ -0,0 +1,79 @@
+package com.openclassrooms.chatop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.chatop.exception.ServiceBusyException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded worker pool running file post-processing off the request threads.
+ * When the queue is full, submissions are rejected with a {@link ServiceBusyException} (503 with
+ * Retry-After) instead of running on the request thread, so a burst of uploads cannot tie up the
+ * request threads with picture decoding.
+ * When virtual threads are enabled the workers are virtual threads, so storage I/O does not hold
+ * a carrier thread; the pool size still bounds how many pictures are decoded in memory at once.
+ */
+@Component
+@Slf4j
+public class FileProcessingExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public FileProcessingExecutor(
+            @Value("${file.processing.threads:2}") int threads,
+            @Value("${file.processing.queue-capacity:100}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("file-processing-", 1).factory()
+                : Thread.ofPlatform().name("file-processing-", 1).daemon(true).factory();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Submits a task. Failures are logged and never propagated to the submitter.
+     *
+     * @param task The task to run.
+     * @throws ServiceBusyException If the queue is full or the pool is shutting down.
+     */
+    public void submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception ex) {
+                    log.error("File processing task failed: {}", ex.getMessage(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("File processing queue full ({} queued), rejecting task", executor.getQueue().size());
+            throw new ServiceBusyException("Too many uploads being processed, please retry");
+        }
+    }
+
+    /**
+     * Lets queued tasks finish before shutting down.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("File processing tasks still running at shutdown: {}", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
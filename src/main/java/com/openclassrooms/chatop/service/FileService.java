@@ -1,19 +1,256 @@
 package com.openclassrooms.chatop.service;
 
+import com.openclassrooms.chatop.exception.ServiceBusyException;
+import com.openclassrooms.chatop.model.ImageVariant;
+import com.openclassrooms.chatop.repository.StoredBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
+/**
+ * Service handling the storage and retrieval of uploaded files.
+ * Files are kept by the configured {@link BlobStorage}; the upload directory is used to stage uploads.
+ */
 @Service
+@Slf4j
 public class FileService {
 
-    private final Path fileStorageLocation = Paths.get("uploads").toAbsolutePath().normalize();
+    /**
+     * Size of the buffer used to copy uploads: memory per upload stays bounded whatever the file size.
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Names made of a SHA-256 content hash, optionally followed by a variant name: their content can never change.
+     */
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("^[0-9a-f]{64}(_[a-z]+)?(\\.[A-Za-z0-9]+)?$");
+
+    /**
+     * Extensions kept on stored file names.
+     */
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("^[a-z0-9]{1,10}$");
+
+    /**
+     * Number of locks striping the operations on blobs.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path stagingLocation;
+    private final BlobStorage blobStorage;
+    private final FileProcessingExecutor fileProcessingExecutor;
+    private final ObjectProvider<UploadPostProcessor> uploadPostProcessors;
+    private final StoredBlobRepository storedBlobRepository;
+
+    /**
+     * Locks serializing the store and delete of a same blob within this instance,
+     * so a file is never deleted while a new reference to it is being added.
+     */
+    private final ReentrantLock[] blobLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public FileService(
+            @Value("${file.upload-dir}") String uploadDir,
+            BlobStorage blobStorage,
+            FileProcessingExecutor fileProcessingExecutor,
+            ObjectProvider<UploadPostProcessor> uploadPostProcessors,
+            StoredBlobRepository storedBlobRepository) {
+        this.stagingLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.blobStorage = blobStorage;
+        this.fileProcessingExecutor = fileProcessingExecutor;
+        this.uploadPostProcessors = uploadPostProcessors;
+        this.storedBlobRepository = storedBlobRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Stores an uploaded file under the SHA-256 hash of its content, and adds a reference to it.
+     * The content is streamed through a bounded buffer into a staging file while its hash is
+     * computed and forced to disk, then handed to the storage backend. Content that is already
+     * stored is not written twice. Post-processing is handed off to the file processing executor,
+     * which removes the staging file once done: the method returns as soon as the bytes are durable.
+     *
+     * @param file The uploaded file.
+     * @return The stored file.
+     * @throws IOException If the file cannot be written.
+     */
+    public StoredFile store(MultipartFile file) throws IOException {
+        Files.createDirectories(stagingLocation);
+        Path tempFile = Files.createTempFile(stagingLocation, ".upload-", ".tmp");
+
+        try {
+            MessageDigest digest = newSha256Digest();
+            long size = 0;
+            try (InputStream input = new DigestInputStream(file.getInputStream(), digest);
+                 FileChannel output = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        output.write(chunk);
+                    }
+                    size += read;
+                }
+                output.force(true);
+            }
+
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            String extension = safeExtension(file.getOriginalFilename());
+            String fileName = (extension != null) ? contentHash + "." + extension : contentHash;
+            String key = storageKey(fileName);
+
+            boolean created;
+            ReentrantLock lock = blobLock(fileName);
+            lock.lock();
+            try {
+                created = !blobStorage.exists(key);
+                if (created) {
+                    blobStorage.put(key, tempFile, getFileContentType(fileName));
+                }
+                storedBlobRepository.addReference(fileName, size);
+            } finally {
+                lock.unlock();
+            }
+
+            if (!created) {
+                Files.deleteIfExists(tempFile);
+                return new StoredFile(fileName, blobStorage.localPath(key).orElse(null), contentHash, size);
+            }
+
+            StoredFile storedFile = new StoredFile(fileName, blobStorage.localPath(key).orElse(tempFile), contentHash, size);
+            List<UploadPostProcessor> postProcessors = uploadPostProcessors.orderedStream().toList();
+            try {
+                fileProcessingExecutor.submit(() -> postProcess(storedFile, postProcessors, tempFile));
+            } catch (ServiceBusyException ex) {
+                // The picture would never get its variants: drop it and let the client retry
+                release(fileName);
+                throw ex;
+            }
+            return storedFile;
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+    }
+
+    /**
+     * Stores generated content under the given name.
+     *
+     * @param filename Name of the file.
+     * @param content Content of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void storeBytes(String filename, byte[] content) throws IOException {
+        blobStorage.put(storageKey(filename), content, getFileContentType(filename));
+    }
+
+    /**
+     * Removes a reference to a stored file.
+     * Once nothing references a content-addressed file anymore, it is deleted with its variants
+     * in the background. Files stored before content addressing are deleted right away.
+     *
+     * @param filename Name of the file.
+     */
+    public void release(String filename) {
+        if (!isContentAddressed(filename)) {
+            deleteLater(filename);
+            return;
+        }
+
+        storedBlobRepository.removeReference(filename);
+        if (storedBlobRepository.deleteIfUnreferenced(filename) > 0) {
+            deleteLater(filename);
+        }
+    }
+
+    /**
+     * Deletes a stored file and its generated variants in the background, or right away when the
+     * processing queue is full.
+     *
+     * @param filename Name of the file.
+     */
+    private void deleteLater(String filename) {
+        try {
+            fileProcessingExecutor.submit(() -> delete(filename));
+        } catch (ServiceBusyException ex) {
+            delete(filename);
+        }
+    }
+
+    /**
+     * Deletes a stored file and its generated variants,
+     * unless a new reference to it was added in the meantime.
+     *
+     * @param filename Name of the file.
+     */
+    private void delete(String filename) {
+        ReentrantLock lock = blobLock(filename);
+        lock.lock();
+        try {
+            if (isContentAddressed(filename) && storedBlobRepository.existsById(filename)) {
+                return;
+            }
+            blobStorage.delete(storageKey(filename));
+            for (ImageVariant variant : ImageVariant.values()) {
+                blobStorage.delete(storageKey(variantFileName(filename, variant)));
+            }
+        } catch (IOException ex) {
+            log.warn("Could not delete file {}: {}", filename, ex.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the name of a generated variant of a picture.
+     *
+     * @param filename Name of the original picture.
+     * @param variant The variant.
+     * @return Name of the variant file.
+     */
+    public String variantFileName(String filename, ImageVariant variant) {
+        return StringUtils.stripFilenameExtension(filename) + "_" + variant.getName() + ".jpg";
+    }
+
+    /**
+     * Resolves the file to serve for a requested picture size.
+     * Falls back to the original while the variant has not been generated, or if the file is not an image.
+     *
+     * @param filename Name of the original picture.
+     * @param variant The requested variant.
+     * @return Name of the variant file if it exists, otherwise the original name.
+     * @throws IOException If the name is invalid or the storage cannot be reached.
+     */
+    public String resolveVariant(String filename, ImageVariant variant) throws IOException {
+        String variantName = variantFileName(filename, variant);
+        return blobStorage.exists(storageKey(variantName)) ? variantName : filename;
+    }
 
     /**
      * Retrieves a file as a Resource.
@@ -23,24 +260,107 @@ public class FileService {
      * @throws IOException If file is not found or cannot be read.
      */
     public Resource loadFileAsResource(String filename) throws IOException {
-        Path filePath = fileStorageLocation.resolve(filename).normalize();
-        Resource resource = new UrlResource(filePath.toUri());
+        return blobStorage.load(storageKey(filename));
+    }
 
-        if (!resource.exists() || !resource.isReadable()) {
+    /**
+     * Returns a short-lived URL from which the file can be downloaded directly from the storage.
+     *
+     * @param filename Name of the file.
+     * @return Presigned URL, or empty if the file must be served by the application.
+     * @throws IOException If the name is invalid or the URL cannot be signed.
+     */
+    public Optional<URI> presignedUrl(String filename) throws IOException {
+        return blobStorage.presignedUrl(storageKey(filename));
+    }
+
+    /**
+     * Determines the content type of a file from its extension, without reading the file.
+     *
+     * @param filename Name of the file.
+     * @return MIME type of the file.
+     */
+    public String getFileContentType(String filename) {
+        return MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    /**
+     * Checks whether a file name is derived from the file content, in which case
+     * the file is immutable and can be cached forever.
+     *
+     * @param filename Name of the file.
+     * @return true if the name is a content hash.
+     */
+    public boolean isContentAddressed(String filename) {
+        return CONTENT_ADDRESSED_NAME.matcher(filename).matches();
+    }
+
+    /**
+     * Returns the storage key of a file.
+     * Content-addressed files are sharded into two levels of sub-directories named after
+     * the first characters of their hash (ab/cd/abcd...), so no directory grows unbounded.
+     *
+     * @param filename Name of the file.
+     * @return Key of the file in the storage.
+     * @throws IOException If the name is not a plain file name.
+     */
+    public String storageKey(String filename) throws IOException {
+        if (!StringUtils.hasText(filename) || filename.contains("/") || filename.contains("\\")
+                || filename.equals(".") || filename.equals("..")) {
             throw new IOException("File not found: " + filename);
         }
-        return resource;
+        if (isContentAddressed(filename)) {
+            return filename.substring(0, 2) + "/" + filename.substring(2, 4) + "/" + filename;
+        }
+        return filename;
     }
 
     /**
-     * Determines the content type of a file.
+     * Runs the post-processors of a newly stored file, then removes its staging copy
+     * if the storage backend did not take it over.
      *
-     * @param filePath Path of the file.
-     * @return MIME type of the file.
-     * @throws IOException If unable to determine type.
+     * @param storedFile The stored file.
+     * @param postProcessors The post-processors to run.
+     * @param stagingFile The staging copy of the file.
      */
-    public String getFileContentType(Path filePath) throws IOException {
-        String contentType = Files.probeContentType(filePath);
-        return (contentType != null) ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    private void postProcess(StoredFile storedFile, List<UploadPostProcessor> postProcessors, Path stagingFile) {
+        try {
+            for (UploadPostProcessor postProcessor : postProcessors) {
+                try {
+                    postProcessor.process(storedFile);
+                } catch (RuntimeException ex) {
+                    log.error("Post-processing of {} failed: {}", storedFile.getFileName(), ex.getMessage(), ex);
+                }
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(stagingFile);
+            } catch (IOException ex) {
+                log.warn("Could not delete staging file {}: {}", stagingFile, ex.getMessage());
+            }
+        }
+    }
+
+    private ReentrantLock blobLock(String filename) {
+        return blobLocks[Math.floorMod(filename.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String safeExtension(String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        if (extension == null) {
+            return null;
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        return SAFE_EXTENSION.matcher(extension).matches() ? extension : null;
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 }
@@ -0,0 +1,151 @@
+package com.openclassrooms.chatop.service;
+
+import com.openclassrooms.chatop.model.ImageVariant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Generates the downscaled variants of every uploaded picture as compressed JPEG files.
+ * Runs on the file processing executor; until a variant exists, the original picture is served instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantGenerator implements UploadPostProcessor {
+
+    /**
+     * JPEG compression quality, a good trade-off between size and visual quality for photos.
+     */
+    private static final float JPEG_QUALITY = 0.8f;
+
+    /**
+     * Pictures above this pixel count are not decoded, to protect the heap from decompression bombs.
+     */
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final FileService fileService;
+
+    /**
+     * Generates every variant of a stored picture, from the largest to the smallest.
+     * Each variant is scaled from the previous one, which is both faster and smoother than
+     * scaling every variant from the original. Files that are not images are ignored.
+     *
+     * @param storedFile The stored picture.
+     */
+    @Override
+    public void process(StoredFile storedFile) {
+        try {
+            BufferedImage image = readImage(storedFile.getPath());
+            if (image == null) {
+                return;
+            }
+
+            ImageVariant[] variants = ImageVariant.values();
+            for (int i = variants.length - 1; i >= 0; i--) {
+                ImageVariant variant = variants[i];
+                image = scale(image, variant.getMaxDimension());
+                fileService.storeBytes(fileService.variantFileName(storedFile.getFileName(), variant), encodeJpeg(image));
+            }
+        } catch (IOException ex) {
+            log.warn("Could not generate variants of {}: {}", storedFile.getFileName(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Decodes an image after checking its dimensions.
+     *
+     * @param path Location of the image.
+     * @return The decoded image, or null if the file is not a supported image or is too large.
+     * @throws IOException If the file cannot be read.
+     */
+    private BufferedImage readImage(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    log.warn("Picture {} is too large to generate variants", path.getFileName());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image down so that neither side exceeds the given dimension.
+     * Transparency is flattened on a white background since JPEG has no alpha channel.
+     *
+     * @param source The image to scale.
+     * @param maxDimension Maximum width or height in pixels.
+     * @return The scaled image.
+     */
+    private BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Encodes an image as JPEG.
+     *
+     * @param image The image to encode.
+     * @return The JPEG bytes.
+     * @throws IOException If encoding fails.
+     */
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
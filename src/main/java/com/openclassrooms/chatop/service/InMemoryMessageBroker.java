@@ -0,0 +1,31 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.chatop.dto.MessageNotification;
+
+/**
+ * Broker delivering notifications within the current instance only.
+ * Suitable for a single instance; use the jdbc broker when running several.
+ */
+@Component
+@ConditionalOnProperty(name = "application.realtime.broker", havingValue = "memory", matchIfMissing = true)
+public class InMemoryMessageBroker implements MessageBroker {
+
+    private final List<Consumer<MessageNotification>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(MessageNotification notification) {
+        subscribers.forEach(subscriber -> subscriber.accept(notification));
+    }
+
+    @Override
+    public void subscribe(Consumer<MessageNotification> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,57 @@
+package com.openclassrooms.chatop.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.chatop.config.RateLimitProperties;
+
+/**
+ * Rate limiter keeping its buckets in the memory of the current instance.
+ * Each bucket is a single lock-free counter: the time at which it will be full again
+ * (generic cell rate algorithm), updated with compare-and-set.
+ * Buckets live in a bounded Caffeine cache. Its frequency sketch keeps the keys seen often, such as an
+ * attacking IP, over the long tail of keys seen once, so memory stays bounded whatever the number of clients.
+ * A bucket idle long enough to be full again is dropped, since it is equivalent to a new one.
+ */
+@Component
+@ConditionalOnProperty(name = "application.security.rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public InMemoryRateLimiter(RateLimitProperties rateLimitProperties) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.getMaxTrackedKeys())
+                .expireAfterAccess(Duration.ofMillis(longestRefill(rateLimitProperties)))
+                .build();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimitProperties.Limit limit) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong());
+        long interval = limit.getRefillInterval();
+        long burst = limit.getCapacity() * interval;
+        while (true) {
+            long now = System.currentTimeMillis();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            if (next - now > burst) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static long longestRefill(RateLimitProperties properties) {
+        return Math.max(
+                properties.getIp().getCapacity() * properties.getIp().getRefillInterval(),
+                properties.getEmail().getCapacity() * properties.getEmail().getRefillInterval());
+    }
+}
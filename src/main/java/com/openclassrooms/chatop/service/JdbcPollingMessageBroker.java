@@ -0,0 +1,133 @@
+package com.openclassrooms.chatop.service;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.config.RealtimeProperties;
+import com.openclassrooms.chatop.dto.MessageNotification;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Broker relaying notifications between instances through a table of the shared database.
+ * Each instance appends the notifications it publishes, and polls the rows appended since its last poll.
+ * This is a stand-in for a dedicated broker (Redis pub/sub, Kafka...) that needs no extra
+ * infrastructure: delivery is delayed by up to one poll interval, and a row committed after a
+ * row with a higher ID may be missed.
+ */
+@Component
+@ConditionalOnProperty(name = "application.realtime.broker", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcPollingMessageBroker implements MessageBroker {
+
+    /**
+     * Maximum number of rows read per poll.
+     */
+    private static final int POLL_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RealtimeProperties realtimeProperties;
+
+    private final List<Consumer<MessageNotification>> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-broker-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * ID of the last row read. Only accessed by the poller thread.
+     */
+    private long lastSeenId;
+
+    /**
+     * Creates the event table if needed, then starts polling from the current end of the table.
+     */
+    @PostConstruct
+    public void start() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS message_events (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    payload TEXT NOT NULL,
+                    created_at TIMESTAMP(3) NOT NULL
+                )
+                """);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM message_events", Long.class);
+        lastSeenId = (maxId != null) ? maxId : 0;
+
+        long pollInterval = realtimeProperties.getPollInterval();
+        poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::purge, 60_000, 60_000, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(MessageNotification notification) {
+        try {
+            jdbcTemplate.update("INSERT INTO message_events (payload, created_at) VALUES (?, ?)",
+                    objectMapper.writeValueAsString(notification),
+                    new Timestamp(System.currentTimeMillis()));
+        } catch (JsonProcessingException ex) {
+            log.error("Could not serialize notification: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<MessageNotification> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Reads the rows appended since the last poll and hands them to the subscribers.
+     */
+    private void poll() {
+        try {
+            List<EventRow> rows = jdbcTemplate.query(
+                    "SELECT id, payload FROM message_events WHERE id > ? ORDER BY id LIMIT " + POLL_BATCH_SIZE,
+                    (resultSet, rowNum) -> new EventRow(resultSet.getLong("id"), resultSet.getString("payload")),
+                    lastSeenId);
+            for (EventRow row : rows) {
+                lastSeenId = row.id();
+                MessageNotification notification = objectMapper.readValue(row.payload(), MessageNotification.class);
+                subscribers.forEach(subscriber -> subscriber.accept(notification));
+            }
+        } catch (Exception ex) {
+            log.warn("Could not poll message events: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the rows older than the retention period.
+     */
+    private void purge() {
+        try {
+            jdbcTemplate.update("DELETE FROM message_events WHERE created_at < ?",
+                    new Timestamp(System.currentTimeMillis() - realtimeProperties.getEventRetention()));
+        } catch (Exception ex) {
+            log.warn("Could not purge message events: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    private record EventRow(long id, String payload) {
+    }
+}
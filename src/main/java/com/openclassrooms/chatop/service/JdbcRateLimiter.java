@@ -0,0 +1,107 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.chatop.config.RateLimitProperties;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rate limiter keeping its buckets in a table of the shared database, so every instance enforces
+ * the same limits. Each bucket is the time at which it will be full again, taken with a single
+ * conditional UPDATE (or an INSERT for a new key). Costs one or two statements per attempt, three
+ * when two first attempts race: a stand-in for a dedicated store (Redis...) that needs no extra infrastructure.
+ */
+@Component
+@ConditionalOnProperty(name = "application.security.rate-limit.backend", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcRateLimiter implements RateLimiter {
+
+    /**
+     * Maximum length of a key stored in the table.
+     */
+    private static final int MAX_KEY_LENGTH = 191;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates the bucket table if needed, and schedules the removal of full buckets.
+     */
+    @PostConstruct
+    public void start() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+                    bucket_key VARCHAR(191) PRIMARY KEY,
+                    full_at BIGINT NOT NULL
+                )
+                """);
+        purger.scheduleWithFixedDelay(this::purge, 60_000, 60_000, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimitProperties.Limit limit) {
+        String bucketKey = key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+        long now = System.currentTimeMillis();
+        long interval = limit.getRefillInterval();
+        long burst = limit.getCapacity() * interval;
+
+        if (takeToken(bucketKey, now, interval, burst)) {
+            return true;
+        }
+        // Either the bucket is empty, or it does not exist yet
+        if (jdbcTemplate.update("INSERT IGNORE INTO rate_limit_buckets (bucket_key, full_at) VALUES (?, ?)",
+                bucketKey, now + interval) > 0) {
+            return true;
+        }
+        // Another first attempt created the bucket in the meantime: take a token from it
+        return takeToken(bucketKey, now, interval, burst);
+    }
+
+    /**
+     * Takes a token from an existing bucket with a conditional UPDATE.
+     *
+     * @param bucketKey Key of the bucket.
+     * @param now Current time, in milliseconds.
+     * @param interval Refill interval of the bucket, in milliseconds.
+     * @param burst Time needed to refill the whole bucket, in milliseconds.
+     * @return true if the bucket exists and had a token left.
+     */
+    private boolean takeToken(String bucketKey, long now, long interval, long burst) {
+        return jdbcTemplate.update("""
+                UPDATE rate_limit_buckets SET full_at = GREATEST(full_at, ?) + ?
+                WHERE bucket_key = ? AND GREATEST(full_at, ?) + ? - ? <= ?
+                """, now, interval, bucketKey, now, interval, now, burst) > 0;
+    }
+
+    /**
+     * Deletes the buckets that are full again: they are equivalent to missing ones.
+     */
+    private void purge() {
+        try {
+            jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE full_at < ?", System.currentTimeMillis());
+        } catch (Exception ex) {
+            log.warn("Could not purge rate limit buckets: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+}
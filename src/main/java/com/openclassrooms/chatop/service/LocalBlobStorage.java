@@ -0,0 +1,90 @@
+package com.openclassrooms.chatop.service;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Storage backend keeping files in a directory of the local file system.
+ * Writes go through a temporary file and an atomic move, so readers never see a partial file.
+ */
+public class LocalBlobStorage implements BlobStorage {
+
+    private final Path root;
+
+    public LocalBlobStorage(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void put(String key, byte[] content, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(root);
+        Path tempFile = Files.createTempFile(root, ".generated-", ".tmp");
+        try {
+            Files.write(tempFile, content);
+            Files.createDirectories(target.getParent());
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return Files.isReadable(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Resource load(String key) throws IOException {
+        Resource resource = new UrlResource(resolve(key).toUri());
+        if (!resource.exists() || !resource.isReadable()) {
+            throw new IOException("File not found: " + key);
+        }
+        return resource;
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) throws IOException {
+        return Optional.of(resolve(key));
+    }
+
+    @Override
+    public Optional<URI> presignedUrl(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves a key inside the storage directory.
+     *
+     * @param key Key of the file.
+     * @return Path of the file.
+     * @throws IOException If the key points outside the storage directory.
+     */
+    private Path resolve(String key) throws IOException {
+        Path filePath = root.resolve(key).normalize();
+        if (!filePath.startsWith(root) || filePath.equals(root)) {
+            throw new IOException("File not found: " + key);
+        }
+        return filePath;
+    }
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.Locale;
+
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.chatop.config.RateLimitProperties;
+import com.openclassrooms.chatop.exception.TooManyRequestsException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Limits the login and registration attempts per client IP address and per email address.
+ * Checks run before any database lookup or password hashing, so rejected attempts cost almost nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoginRateLimiter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+
+    /**
+     * Takes one attempt from the bucket of a client IP address.
+     *
+     * @param ip The client IP address.
+     * @throws TooManyRequestsException If the client made too many attempts.
+     */
+    public void checkIp(String ip) {
+        check("ip:" + ip, rateLimitProperties.getIp());
+    }
+
+    /**
+     * Takes one attempt from the bucket of an email address.
+     * Stops credential stuffing spread over many IP addresses against a single account.
+     *
+     * @param email The email address.
+     * @throws TooManyRequestsException If too many attempts were made for this email.
+     */
+    public void checkEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        check("email:" + email.trim().toLowerCase(Locale.ROOT), rateLimitProperties.getEmail());
+    }
+
+    private void check(String key, RateLimitProperties.Limit limit) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        if (!rateLimiter.tryAcquire(key, limit)) {
+            long retryAfterSeconds = Math.max(1, (limit.getRefillInterval() + 999) / 1000);
+            throw new TooManyRequestsException("Too many attempts, please retry later", retryAfterSeconds);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.function.Consumer;
+
+import com.openclassrooms.chatop.dto.MessageNotification;
+
+/**
+ * Relays new message notifications to every instance of the application,
+ * so that a message reaches its recipient whichever instance holds their connection.
+ */
+public interface MessageBroker {
+
+    /**
+     * Publishes a notification to every subscriber, on every instance.
+     *
+     * @param notification The notification.
+     */
+    void publish(MessageNotification notification);
+
+    /**
+     * Registers a subscriber receiving the notifications published on any instance.
+     * Subscribers must not block.
+     *
+     * @param subscriber The subscriber.
+     */
+    void subscribe(Consumer<MessageNotification> subscriber);
+}
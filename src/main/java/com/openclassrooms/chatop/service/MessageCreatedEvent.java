@@ -0,0 +1,21 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.List;
+
+import com.openclassrooms.chatop.dto.MessageResponse;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published when messages have been created.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MessageCreatedEvent {
+
+    /**
+     * The created messages.
+     */
+    private final List<MessageResponse> messages;
+}
@@ -1,18 +1,37 @@
 package com.openclassrooms.chatop.service;
 
+import com.openclassrooms.chatop.config.MessageIngestionProperties;
+import com.openclassrooms.chatop.dto.KeysetCursor;
+import com.openclassrooms.chatop.dto.MessageBatchRequest;
+import com.openclassrooms.chatop.dto.MessagePageResponse;
 import com.openclassrooms.chatop.dto.MessageRequest;
 import com.openclassrooms.chatop.dto.GlobalMessageResponse;
+import com.openclassrooms.chatop.dto.MessageResponse;
+import com.openclassrooms.chatop.dto.RentalResponse;
+import com.openclassrooms.chatop.dto.UnreadCountResponse;
+import com.openclassrooms.chatop.exception.ServiceBusyException;
 import com.openclassrooms.chatop.mapper.MessageMapper;
 import com.openclassrooms.chatop.model.Message;
-import com.openclassrooms.chatop.model.Rental;
-import com.openclassrooms.chatop.model.User;
 import com.openclassrooms.chatop.repository.MessageRepository;
 import com.openclassrooms.chatop.repository.RentalRepository;
 import com.openclassrooms.chatop.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service class for managing messages operations.
@@ -22,40 +41,307 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class MessageService {
 
+    /**
+     * Default number of messages per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Maximum number of messages per page.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final MessageRepository messageRepository;
     private final RentalRepository rentalRepository;
     private final UserRepository userRepository;
     private final MessageMapper messageMapper;
+    private final RentalService rentalService;
+    private final AuthService authService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageWriteBehindQueue messageWriteBehindQueue;
+    private final MessageIngestionProperties ingestionProperties;
 
     /**
      * Creates a new message by linking a user and a rental.
+     * The user and rental are attached as references without being loaded: the foreign keys
+     * validate them during the insert, so sending a message costs a single INSERT.
+     * The message is then pushed to the rental owner if they are connected.
+     * Depending on the ingestion mode, the message is inserted right away or handed to the
+     * write-behind queue; in fire-and-forget mode a missing user or rental is only logged.
+     * The sender is the authenticated user.
      * Throws EntityNotFoundException if the user or rental is not found.
      * Any unexpected exceptions are wrapped in a RuntimeException.
      *
      * @param messageRequest The DTO containing message details.
      * @return The saved Message entity.
      * @throws EntityNotFoundException If the user or rental is not found.
+     * @throws AccessDeniedException If the user ID of the message is not the authenticated user.
+     * @throws ServiceBusyException If the write-behind queue is full or the write is not confirmed in time.
      */
     public GlobalMessageResponse createMessage(MessageRequest messageRequest) {
+        Long senderId = currentSender(List.of(messageRequest));
         try {
-            User user = userRepository.findById(messageRequest.getUserId())
-                    .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + messageRequest.getUserId()));
-
-            Rental rental = rentalRepository.findById(messageRequest.getRentalId())
-                    .orElseThrow(() -> new EntityNotFoundException("Rental not found with id: " + messageRequest.getRentalId()));
-
-            Message message = messageMapper.toEntity(messageRequest);
-            message.setUser(user);
-            message.setRental(rental);
-            messageRepository.save(message);
-
+            switch (ingestionProperties.getMode()) {
+                case SYNC -> {
+                    Message message = messageRepository.save(toEntity(messageRequest, senderId));
+                    eventPublisher.publishEvent(new MessageCreatedEvent(List.of(messageMapper.toResponse(message))));
+                }
+                case WAIT_FOR_FLUSH -> awaitFlush(messageWriteBehindQueue.submit(toEntity(messageRequest, senderId)));
+                case FIRE_AND_FORGET -> messageWriteBehindQueue.submit(toEntity(messageRequest, senderId));
+            }
             return new GlobalMessageResponse("Message send with success");
+        } catch (DataIntegrityViolationException ex) {
+            throw missingReference(List.of(messageRequest), ex);
         } catch (EntityNotFoundException ex) {
             log.error("Entity not found: {}", ex.getMessage());
             throw ex;
+        } catch (ServiceBusyException ex) {
+            log.warn("Message rejected: {}", ex.getMessage());
+            throw ex;
         } catch (Exception ex) {
             log.error("Unexpected error while creating message: {}", ex.getMessage(), ex);
             throw new RuntimeException("Error while creating message", ex);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Waits until the batch holding a queued message is committed.
+     *
+     * @param write The pending write returned by the write-behind queue.
+     * @throws ServiceBusyException If the write is not confirmed within the flush timeout.
+     */
+    private void awaitFlush(CompletableFuture<Message> write) {
+        try {
+            write.get(ingestionProperties.getFlushTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Error while writing message", ex.getCause());
+        } catch (TimeoutException ex) {
+            // The message stays queued and may still be written
+            throw new ServiceBusyException("Message was not confirmed in time, please check before retrying");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Message was not confirmed, please check before retrying");
+        }
+    }
+
+    /**
+     * Creates several messages at once with a multi-row insert.
+     * Either every message is created, or none if a user or rental is not found.
+     * Every message is sent by the authenticated user.
+     *
+     * @param batchRequest The DTO containing the messages.
+     * @return A confirmation message.
+     * @throws EntityNotFoundException If a user or rental is not found.
+     * @throws AccessDeniedException If a message has another user ID than the authenticated user.
+     */
+    @Transactional
+    public GlobalMessageResponse createMessages(MessageBatchRequest batchRequest) {
+        List<MessageRequest> requests = batchRequest.getMessages();
+        Long senderId = currentSender(requests);
+        try {
+            List<Message> messages = requests.stream().map(request -> toEntity(request, senderId)).toList();
+            messageRepository.insertAll(messages);
+            // Delivered to the connected owners once the transaction has committed
+            eventPublisher.publishEvent(new MessageCreatedEvent(messages.stream().map(messageMapper::toResponse).toList()));
+            return new GlobalMessageResponse(requests.size() + " messages send with success");
+        } catch (DataIntegrityViolationException ex) {
+            throw missingReference(requests, ex);
+        } catch (EntityNotFoundException ex) {
+            log.error("Entity not found: {}", ex.getMessage());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while creating messages: {}", ex.getMessage(), ex);
+            throw new RuntimeException("Error while creating messages", ex);
+        }
+    }
+
+    /**
+     * Retrieves one page of the messages of a rental, newest first.
+     * The rental owner sees every message; other users only see the messages they sent.
+     *
+     * @param rentalId The ID of the rental.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @return The page of messages and the cursor of the next page.
+     * @throws EntityNotFoundException If the rental does not exist.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public MessagePageResponse getThread(Long rentalId, String cursor, int limit) {
+        RentalResponse rental = rentalService.getRentalById(rentalId);
+        Long currentUserId = authService.getCurrentUserId();
+        Long senderId = currentUserId.equals(rental.getOwnerId()) ? null : currentUserId;
+
+        int pageSize = clampPageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<MessageResponse> messages;
+        if (cursor == null || cursor.isBlank()) {
+            messages = messageRepository.findThreadFirstPage(rentalId, senderId, pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            messages = messageRepository.findThreadPageAfter(rentalId, senderId, position.getCreatedAt(), position.getId(), pageable);
+        }
+        return toPage(messages, pageSize);
+    }
+
+    /**
+     * Retrieves one page of the messages received on the rentals of the current user, newest first.
+     *
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @return The page of messages and the cursor of the next page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public MessagePageResponse getInbox(String cursor, int limit) {
+        Long ownerId = authService.getCurrentUserId();
+
+        int pageSize = clampPageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<MessageResponse> messages;
+        if (cursor == null || cursor.isBlank()) {
+            messages = messageRepository.findInboxFirstPage(ownerId, pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            messages = messageRepository.findInboxPageAfter(ownerId, position.getCreatedAt(), position.getId(), pageable);
+        }
+        return toPage(messages, pageSize);
+    }
+
+    /**
+     * Retrieves one page of the messages sent by the current user, newest first.
+     *
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @return The page of messages and the cursor of the next page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public MessagePageResponse getSent(String cursor, int limit) {
+        Long userId = authService.getCurrentUserId();
+
+        int pageSize = clampPageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<MessageResponse> messages;
+        if (cursor == null || cursor.isBlank()) {
+            messages = messageRepository.findSentFirstPage(userId, pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            messages = messageRepository.findSentPageAfter(userId, position.getCreatedAt(), position.getId(), pageable);
+        }
+        return toPage(messages, pageSize);
+    }
+
+    /**
+     * Counts the unread messages received on the rentals of the current user.
+     *
+     * @return The number of unread messages.
+     */
+    public UnreadCountResponse getUnreadCount() {
+        return new UnreadCountResponse(messageRepository.countUnreadByOwnerId(authService.getCurrentUserId()));
+    }
+
+    /**
+     * Marks every message of a rental as read. Only the rental owner can do so.
+     *
+     * @param rentalId The ID of the rental.
+     * @return A confirmation message.
+     * @throws EntityNotFoundException If the rental does not exist.
+     * @throws AccessDeniedException If the current user does not own the rental.
+     */
+    @Transactional
+    public GlobalMessageResponse markThreadAsRead(Long rentalId) {
+        RentalResponse rental = rentalService.getRentalById(rentalId);
+        if (!authService.getCurrentUserId().equals(rental.getOwnerId())) {
+            throw new AccessDeniedException("Only the owner of the rental can mark its messages as read");
+        }
+        messageRepository.markThreadAsRead(rentalId, LocalDateTime.now());
+        return new GlobalMessageResponse("Messages marked as read");
+    }
+
+    /**
+     * Returns the authenticated user, after checking that every message names them as sender.
+     * Messages can only be sent on one's own behalf.
+     *
+     * @param requests The messages to send.
+     * @return The ID of the authenticated user.
+     * @throws AccessDeniedException If a message has another user ID.
+     */
+    private Long currentSender(List<MessageRequest> requests) {
+        Long currentUserId = authService.getCurrentUserId();
+        for (MessageRequest request : requests) {
+            if (!currentUserId.equals(request.getUserId())) {
+                log.warn("User {} tried to send a message as user {}", currentUserId, request.getUserId());
+                throw new AccessDeniedException("Messages can only be sent by the authenticated user");
+            }
+        }
+        return currentUserId;
+    }
+
+    /**
+     * Builds a message entity whose user and rental are uninitialized references.
+     *
+     * @param messageRequest The DTO containing message details.
+     * @param senderId The ID of the sending user.
+     * @return The message entity.
+     */
+    private Message toEntity(MessageRequest messageRequest, Long senderId) {
+        Message message = messageMapper.toEntity(messageRequest);
+        message.setUser(userRepository.getReferenceById(senderId));
+        message.setRental(rentalRepository.getReferenceById(messageRequest.getRentalId()));
+        return message;
+    }
+
+    /**
+     * Finds which user or rental made an insert fail. Only runs on the failure path,
+     * so the existence checks never cost anything to valid messages.
+     *
+     * @param requests The messages that failed to insert.
+     * @param cause The integrity violation raised by the insert.
+     * @return The exception naming the missing user or rental.
+     * @throws DataIntegrityViolationException If every user and rental exists.
+     */
+    private EntityNotFoundException missingReference(List<MessageRequest> requests, DataIntegrityViolationException cause) {
+        for (Long userId : requests.stream().map(MessageRequest::getUserId).distinct().toList()) {
+            if (!userRepository.existsById(userId)) {
+                log.error("Entity not found: User not found with id: {}", userId);
+                return new EntityNotFoundException("User not found with id: " + userId);
+            }
+        }
+        for (Long rentalId : requests.stream().map(MessageRequest::getRentalId).distinct().toList()) {
+            if (!rentalRepository.existsById(rentalId)) {
+                log.error("Entity not found: Rental not found with id: {}", rentalId);
+                return new EntityNotFoundException("Rental not found with id: " + rentalId);
+            }
+        }
+        throw cause;
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Builds a page from query results fetched with one extra row.
+     *
+     * @param messages Query results, holding at most one row more than the page size.
+     * @param pageSize The page size.
+     * @return The page and the cursor of the next page.
+     */
+    private MessagePageResponse toPage(List<MessageResponse> messages, int pageSize) {
+        // The extra row only tells whether a next page exists, without a COUNT query
+        boolean hasMore = messages.size() > pageSize;
+        List<MessageResponse> page = hasMore ? messages.subList(0, pageSize) : messages;
+        String nextCursor = null;
+        if (hasMore) {
+            MessageResponse last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return MessagePageResponse.builder()
+                .messages(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,239 @@
+package com.openclassrooms.chatop.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.openclassrooms.chatop.config.RealtimeProperties;
+import com.openclassrooms.chatop.dto.MessageNotification;
+import com.openclassrooms.chatop.dto.MessageResponse;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fan-out hub pushing new messages to the connected rental owners over Server-Sent Events.
+ * Each connection has a bounded outbound queue drained by its own virtual thread, so a slow
+ * client only ever blocks itself; a connection whose queue overflows is closed, and the client
+ * catches up through the inbox endpoint when it reconnects.
+ */
+@Service
+@Slf4j
+public class MessageStreamHub {
+
+    /**
+     * Queue entry asking for a keep-alive comment.
+     */
+    private static final Object HEARTBEAT = new Object();
+
+    private final MessageBroker messageBroker;
+    private final RentalService rentalService;
+    private final RealtimeProperties realtimeProperties;
+
+    /**
+     * Open connections per user ID.
+     */
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+
+    /**
+     * Writes to the clients. A blocked write only parks its virtual thread.
+     */
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MessageStreamHub(MessageBroker messageBroker, RentalService rentalService, RealtimeProperties realtimeProperties) {
+        this.messageBroker = messageBroker;
+        this.rentalService = rentalService;
+        this.realtimeProperties = realtimeProperties;
+        messageBroker.subscribe(this::deliver);
+        long heartbeatInterval = realtimeProperties.getHeartbeatInterval();
+        heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream for a user. When the user already has the maximum number of streams, the oldest is closed.
+     *
+     * @param userId The ID of the connected user.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter connect(Long userId) {
+        Connection connection = new Connection(userId, new SseEmitter(realtimeProperties.getConnectionTimeout()));
+        connection.emitter.onCompletion(() -> remove(connection));
+        connection.emitter.onTimeout(() -> remove(connection));
+        connection.emitter.onError(ex -> remove(connection));
+
+        connections.compute(userId, (id, userConnections) -> {
+            List<Connection> list = (userConnections != null) ? userConnections : new CopyOnWriteArrayList<>();
+            list.add(connection);
+            return list;
+        });
+        List<Connection> userConnections = connections.getOrDefault(userId, List.of());
+        if (userConnections.size() > realtimeProperties.getMaxConnectionsPerUser()) {
+            close(userConnections.get(0));
+        }
+
+        // Flush the response headers right away
+        connection.enqueue(HEARTBEAT);
+        return connection.emitter;
+    }
+
+    /**
+     * Publishes created messages to their recipients once the creating transaction has committed.
+     * The recipient of a message is the owner of the rental, read from the rental cache.
+     *
+     * @param event The created messages.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageCreated(MessageCreatedEvent event) {
+        for (MessageResponse message : event.getMessages()) {
+            try {
+                Long ownerId = rentalService.getRentalById(message.getRentalId()).getOwnerId();
+                messageBroker.publish(new MessageNotification(ownerId, message));
+            } catch (EntityNotFoundException ex) {
+                log.warn("No recipient for message {}: {}", message.getId(), ex.getMessage());
+            } catch (RuntimeException ex) {
+                log.error("Could not publish message {}: {}", message.getId(), ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Queues a notification on every connection of its recipient. Never blocks.
+     *
+     * @param notification The notification.
+     */
+    private void deliver(MessageNotification notification) {
+        for (Connection connection : connections.getOrDefault(notification.getRecipientId(), List.of())) {
+            connection.enqueue(notification.getMessage());
+        }
+    }
+
+    private void sendHeartbeats() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> connection.enqueue(HEARTBEAT)));
+    }
+
+    private void remove(Connection connection) {
+        connection.closed = true;
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    /**
+     * Closes a connection. Completing the emitter may wait for a write in progress,
+     * so it is done on the delivery executor rather than on the calling thread.
+     *
+     * @param connection The connection to close.
+     */
+    private void close(Connection connection) {
+        remove(connection);
+        deliveryExecutor.execute(connection.emitter::complete);
+    }
+
+    /**
+     * Closes the open streams as soon as the application starts shutting down. Streams never end on
+     * their own, so the graceful shutdown of the web server would otherwise wait for its timeout.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeConnections() {
+        connections.values().forEach(userConnections -> userConnections.forEach(this::close));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        closeConnections();
+        deliveryExecutor.shutdown();
+    }
+
+    /**
+     * Open stream of a user, with its bounded outbound queue.
+     */
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(realtimeProperties.getQueueCapacity());
+        }
+
+        /**
+         * Queues an event and makes sure a drain is running. Evicts the connection if its queue is full.
+         *
+         * @param event The message to send, or {@link #HEARTBEAT}.
+         */
+        void enqueue(Object event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.warn("Closing message stream of user {}: client is not keeping up", userId);
+                close(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Writes queued events until the queue is empty.
+         */
+        private void drain() {
+            try {
+                Object event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(toSseEvent(event));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client gone: the emitter callbacks may not fire until the next write attempt
+                remove(this);
+            } finally {
+                draining.set(false);
+                if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                    deliveryExecutor.execute(this::drain);
+                }
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toSseEvent(Object event) {
+            if (event == HEARTBEAT) {
+                return SseEmitter.event().comment("keep-alive");
+            }
+            MessageResponse message = (MessageResponse) event;
+            return SseEmitter.event()
+                    .id(String.valueOf(message.getId()))
+                    .name("message")
+                    .data(message, MediaType.APPLICATION_JSON);
+        }
+    }
+}
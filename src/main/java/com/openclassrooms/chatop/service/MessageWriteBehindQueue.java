@@ -0,0 +1,159 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.openclassrooms.chatop.config.MessageIngestionProperties;
+import com.openclassrooms.chatop.exception.ServiceBusyException;
+import com.openclassrooms.chatop.mapper.MessageMapper;
+import com.openclassrooms.chatop.model.Message;
+import com.openclassrooms.chatop.repository.MessageRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded queue of messages written in the background by multi-row INSERTs.
+ * A single worker takes every message queued while the previous batch was being written,
+ * so batches grow with the load without delaying messages when traffic is low.
+ */
+@Component
+@Slf4j
+public class MessageWriteBehindQueue {
+
+    /**
+     * How long the worker waits for a message before checking whether it must stop, in milliseconds.
+     */
+    private static final long POLL_TIMEOUT = 100;
+
+    private final MessageRepository messageRepository;
+    private final MessageMapper messageMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    private final BlockingQueue<PendingMessage> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public MessageWriteBehindQueue(
+            MessageRepository messageRepository,
+            MessageMapper messageMapper,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MessageIngestionProperties ingestionProperties) {
+        this.messageRepository = messageRepository;
+        this.messageMapper = messageMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = ingestionProperties.getBatchSize();
+        this.queue = new ArrayBlockingQueue<>(ingestionProperties.getQueueCapacity());
+        this.worker = new Thread(this::run, "message-write-behind");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a message for writing. Never blocks.
+     *
+     * @param message The message, whose user and rental only need to carry their ID.
+     * @return A future completed with the message once committed, or with the write failure.
+     * @throws ServiceBusyException If the queue is full.
+     */
+    public CompletableFuture<Message> submit(Message message) {
+        if (!running) {
+            throw new ServiceBusyException("Server is shutting down, please retry");
+        }
+        PendingMessage pending = new PendingMessage(message, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new ServiceBusyException("Too many messages are being sent, please retry");
+        }
+        // Shutdown started after the check above: the worker may already be gone. If the message
+        // cannot be taken back, the worker or the shutdown drain has it and will complete its future.
+        if (!running && queue.remove(pending)) {
+            throw new ServiceBusyException("Server is shutting down, please retry");
+        }
+        return pending.future();
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction, then completes its futures.
+     * When a message of the batch references a missing user or rental, the batch is retried
+     * message by message so that only the invalid messages fail.
+     *
+     * @param batch The messages to write.
+     */
+    private void flush(List<PendingMessage> batch) {
+        List<Message> messages = batch.stream().map(PendingMessage::message).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                messageRepository.insertAll(messages);
+                // Delivered to the connected owners once the transaction has committed
+                eventPublisher.publishEvent(new MessageCreatedEvent(messages.stream().map(messageMapper::toResponse).toList()));
+            });
+            batch.forEach(pending -> pending.future().complete(pending.message()));
+        } catch (DataIntegrityViolationException ex) {
+            if (batch.size() == 1) {
+                log.warn("Message rejected: {}", ex.getMostSpecificCause().getMessage());
+                batch.get(0).future().completeExceptionally(ex);
+            } else {
+                batch.forEach(pending -> flush(List.of(pending)));
+            }
+        } catch (RuntimeException ex) {
+            log.error("Could not write {} messages: {}", batch.size(), ex.getMessage(), ex);
+            batch.forEach(pending -> pending.future().completeExceptionally(ex));
+        }
+    }
+
+    /**
+     * Stops accepting messages and writes the queued ones before shutting down.
+     * Messages still queued when the worker does not finish in time are failed, so that no request
+     * waits for a write that will never happen.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        List<PendingMessage> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        if (!unwritten.isEmpty()) {
+            log.warn("{} queued messages were not written at shutdown", unwritten.size());
+            ServiceBusyException failure = new ServiceBusyException("Server is shutting down, message was not sent");
+            unwritten.forEach(pending -> pending.future().completeExceptionally(failure));
+        }
+    }
+
+    private record PendingMessage(Message message, CompletableFuture<Message> future) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the statements Hibernate prepares and the lazy loads it triggers, to catch N+1 queries
+ * in development and CI. Counts go to the scope of the current thread (a request) and to every open
+ * global scope (a test, whose statements may run on server threads).
+ * Only statements issued through Hibernate are seen, not those of the JdbcTemplate backends.
+ */
+@Component
+@ConditionalOnProperty(name = "application.query-inspection.enabled", havingValue = "true")
+public class QueryInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final ThreadLocal<QueryStatistics> currentScope = new ThreadLocal<>();
+    private final Set<QueryStatistics> globalScopes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers this inspector and the lazy load listeners with Hibernate.
+     *
+     * @param hibernateProperties The properties of the session factory.
+     */
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(new LazyLoadIntegrator()));
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryStatistics scope = currentScope.get();
+        if (scope != null) {
+            scope.recordStatement(sql);
+        }
+        for (QueryStatistics globalScope : globalScopes) {
+            globalScope.recordStatement(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Starts counting the statements of the current thread.
+     *
+     * @return The statistics of the new scope.
+     */
+    public QueryStatistics beginScope() {
+        QueryStatistics scope = new QueryStatistics();
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns the statistics of the current thread.
+     *
+     * @return The statistics, or null outside a scope.
+     */
+    public QueryStatistics currentScope() {
+        return currentScope.get();
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     */
+    public void endScope() {
+        currentScope.remove();
+    }
+
+    /**
+     * Starts counting the statements of every thread.
+     *
+     * @return The statistics of the new scope, to pass to {@link #closeGlobalScope}.
+     */
+    public QueryStatistics openGlobalScope() {
+        QueryStatistics scope = new QueryStatistics();
+        globalScopes.add(scope);
+        return scope;
+    }
+
+    public void closeGlobalScope(QueryStatistics scope) {
+        globalScopes.remove(scope);
+    }
+
+    private void recordLazyLoad(String target) {
+        QueryStatistics scope = currentScope.get();
+        if (scope != null) {
+            scope.recordLazyLoad(target);
+        }
+        for (QueryStatistics globalScope : globalScopes) {
+            globalScope.recordLazyLoad(target);
+        }
+    }
+
+    /**
+     * Appends the lazy load listeners to the session factory.
+     * A proxy is initialized by an immediate load; a lazy collection by a collection initialization.
+     */
+    private final class LazyLoadIntegrator implements Integrator, LoadEventListener, InitializeCollectionEventListener {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.LOAD, this);
+            registry.appendListeners(EventType.INIT_COLLECTION, this);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                recordLazyLoad(event.getEntityClassName());
+            }
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            recordLazyLoad(event.getCollection().getRole());
+        }
+    }
+}
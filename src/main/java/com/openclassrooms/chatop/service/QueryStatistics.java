@@ -0,0 +1,95 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statements and lazy loads counted over a scope: one request, or one test.
+ * A statement is a duplicate when the same SQL already ran in the scope, which is how an N+1
+ * shows up: one query for the list, then the same query again for every element.
+ */
+public class QueryStatistics {
+
+    /**
+     * Executions per SQL statement, in order of first execution.
+     */
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+    /**
+     * Lazy loads per entity name or collection role.
+     */
+    private final Map<String, Integer> lazyLoads = new LinkedHashMap<>();
+
+    private int statementCount;
+    private int duplicateCount;
+    private int lazyLoadCount;
+
+    synchronized void recordStatement(String sql) {
+        statementCount++;
+        if (statements.merge(sql, 1, Integer::sum) > 1) {
+            duplicateCount++;
+        }
+    }
+
+    synchronized void recordLazyLoad(String target) {
+        lazyLoadCount++;
+        lazyLoads.merge(target, 1, Integer::sum);
+    }
+
+    public synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    public synchronized int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public synchronized int getLazyLoadCount() {
+        return lazyLoadCount;
+    }
+
+    /**
+     * Returns the statements executed more than once, with their number of executions.
+     *
+     * @return The repeated statements.
+     */
+    public synchronized Map<String, Integer> getDuplicateStatements() {
+        Map<String, Integer> duplicates = new LinkedHashMap<>();
+        statements.forEach((sql, count) -> {
+            if (count > 1) {
+                duplicates.put(sql, count);
+            }
+        });
+        return duplicates;
+    }
+
+    /**
+     * Returns the lazily loaded entities and collections, with their number of loads.
+     *
+     * @return The lazy loads per entity name or collection role.
+     */
+    public synchronized Map<String, Integer> getLazyLoads() {
+        return new LinkedHashMap<>(lazyLoads);
+    }
+
+    /**
+     * Returns the counts on one line, as sent in the X-Query-Summary header.
+     *
+     * @return The summary.
+     */
+    public synchronized String summary() {
+        return "statements=" + statementCount + ", duplicates=" + duplicateCount + ", lazy-loads=" + lazyLoadCount;
+    }
+
+    /**
+     * Returns the summary followed by the repeated statements and the lazy loads, one per line.
+     *
+     * @return The detailed report.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(summary());
+        getDuplicateStatements().forEach((sql, count) -> report.append("\n  ").append(count).append("x ").append(sql));
+        getLazyLoads().forEach((target, count) -> report.append("\n  ").append(count).append("x lazy load of ").append(target));
+        return report.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.openclassrooms.chatop.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resource whose content can be read from an offset without reading the bytes before it,
+ * for storage backends where skipping to an offset means downloading everything before it.
+ */
+public interface RangedResource extends Resource {
+
+    /**
+     * Opens a stream over a byte range of the content.
+     *
+     * @param start Offset of the first byte.
+     * @param end Offset of the last byte, inclusive.
+     * @return A stream over the requested bytes only.
+     * @throws IOException If the content cannot be read.
+     */
+    InputStream getInputStream(long start, long end) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.chatop.service;
+
+import com.openclassrooms.chatop.config.RateLimitProperties;
+
+/**
+ * Store of token buckets, selected with the application.security.rate-limit.backend property.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one token from the bucket of a key.
+     *
+     * @param key Key of the bucket, e.g. an IP address.
+     * @param limit Capacity and refill rate of the bucket.
+     * @return true if a token was available, false if the attempt must be rejected.
+     */
+    boolean tryAcquire(String key, RateLimitProperties.Limit limit);
+}
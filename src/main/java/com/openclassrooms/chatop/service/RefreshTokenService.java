@@ -0,0 +1,154 @@
+package com.openclassrooms.chatop.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.chatop.config.JwtProperties;
+import com.openclassrooms.chatop.model.RefreshToken;
+import com.openclassrooms.chatop.repository.RefreshTokenRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service issuing and rotating refresh tokens.
+ * Tokens are random opaque values; only their SHA-256 hash is stored, so checking one costs a single
+ * indexed lookup and never a password hash. Each refresh consumes the token and issues the next one
+ * of its family. A consumed token presented again means it was stolen (or the client replayed it),
+ * so the whole family is revoked and the user has to log in again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    /**
+     * Number of random bytes of a token.
+     */
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtProperties jwtProperties;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refresh-token-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Schedules the deletion of expired tokens.
+     */
+    @PostConstruct
+    public void start() {
+        long sweepInterval = jwtProperties.getRefreshToken().getSweepInterval();
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Issues the first refresh token of a new family, after a login or a registration.
+     *
+     * @param userId The ID of the user.
+     * @return The token to hand to the client.
+     */
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consumes a refresh token and issues the next one of its family.
+     *
+     * @param token The token presented by the client.
+     * @return The ID of the user and the next token.
+     * @throws BadCredentialsException If the token is unknown, expired or already used.
+     */
+    public Rotation rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshToken.getExpiresAt().isBefore(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        if (refreshTokenRepository.markAsUsed(refreshToken.getId(), now) == 0) {
+            log.warn("Refresh token reused for user {}: revoking its token family", refreshToken.getUserId());
+            refreshTokenRepository.deleteByFamilyId(refreshToken.getFamilyId());
+            throw new BadCredentialsException("Refresh token already used");
+        }
+        return new Rotation(refreshToken.getUserId(), issue(refreshToken.getUserId(), refreshToken.getFamilyId()));
+    }
+
+    /**
+     * Revokes every refresh token of a user.
+     *
+     * @param userId The ID of the user.
+     */
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .userId(userId)
+                .expiresAt(LocalDateTime.now().plusNanos(
+                        TimeUnit.MILLISECONDS.toNanos(jwtProperties.getRefreshToken().getExpiration())))
+                .build());
+        return token;
+    }
+
+    /**
+     * Deletes the expired tokens. Used tokens are kept until they expire so that their reuse is detected.
+     */
+    private void sweep() {
+        try {
+            int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                log.debug("Deleted {} expired refresh tokens", deleted);
+            }
+        } catch (Exception ex) {
+            log.warn("Could not delete expired refresh tokens: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Result of a refresh: the user the token belonged to and the next refresh token.
+     *
+     * @param userId The ID of the user.
+     * @param refreshToken The next refresh token.
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
@@ -1,40 +1,69 @@
 package com.openclassrooms.chatop.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.config.CacheConfig;
 import com.openclassrooms.chatop.dto.GlobalMessageResponse;
+import com.openclassrooms.chatop.dto.KeysetCursor;
+import com.openclassrooms.chatop.dto.RentalCatalogVersion;
+import com.openclassrooms.chatop.dto.RentalFilter;
 import com.openclassrooms.chatop.dto.RentalListResponse;
+import com.openclassrooms.chatop.dto.RentalPageResponse;
 import com.openclassrooms.chatop.dto.RentalRequest;
 import com.openclassrooms.chatop.dto.RentalResponse;
 import com.openclassrooms.chatop.mapper.RentalMapper;
 import com.openclassrooms.chatop.model.Rental;
-import com.openclassrooms.chatop.model.User;
 import com.openclassrooms.chatop.repository.RentalRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing rental operations.
+ * Rental details and listing pages are cached; every write evicts the affected entries.
  */
 @Service
 @RequiredArgsConstructor
 public class RentalService {
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Upper bound on the page size a client can request.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final RentalRepository rentalRepository;
     private final RentalMapper rentalMapper;
+    private final ObjectMapper objectMapper;
+    private final AuthService authService;
+    private final FileService fileService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    @Value("${file.base-url}")
+    private String pictureBaseUrl;
 
     /**
      * Creates a new rental listing.
@@ -43,23 +72,18 @@ public class RentalService {
      * @return The created Rental object.
      * @throws IOException If there is an error saving the rental image.
      */
+    @CacheEvict(cacheNames = CacheConfig.RENTAL_PAGES, allEntries = true)
     public GlobalMessageResponse createRental(RentalRequest rentalRequest) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                throw new RuntimeException("User not authenticated");
-            }
-
-            User user = (User) authentication.getPrincipal();
+            Long ownerId = authService.getCurrentUserId();
             String pictureUrl = null;
             if (rentalRequest.getPicture() != null && !rentalRequest.getPicture().isEmpty()) {
-                String uniqueFileName = saveImage(rentalRequest.getPicture());
-                pictureUrl = "http://localhost:3001/uploads/" + uniqueFileName;
+                pictureUrl = saveImage(rentalRequest.getPicture());
             }
 
             // Use mapper instead of direct builder
             Rental rental = rentalMapper.toEntity(rentalRequest);
-            rental.setOwnerId(user.getId());
+            rental.setOwnerId(ownerId);
             rental.setPicture(pictureUrl);
 
             rentalRepository.save(rental);
@@ -70,7 +94,8 @@ public class RentalService {
     }
 
     /**
-     * Retrieves all rental listings.
+     * Retrieves all rental listings in a single unpaged response.
+     * Loads the whole catalogue in memory: prefer {@link #getRentalPage} for regular listings.
      *
      * @return A list of all available rentals.
      */
@@ -78,12 +103,134 @@ public class RentalService {
         return new RentalListResponse(rentalMapper.toResponseList(rentalRepository.findAll()));
     }
 
+    /**
+     * Retrieves one page of rentals matching the given filters, newest first.
+     * Uses keyset pagination: the cursor encodes the position of the last rental of the previous page.
+     *
+     * @param filter Optional price, surface and owner filters.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @return The page of rentals and the cursor of the next page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    @Cacheable(cacheNames = CacheConfig.RENTAL_PAGES, key = "#filter.toString() + '|' + #cursor + '|' + #limit")
+    public RentalPageResponse getRentalPage(RentalFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether a next page exists without a COUNT query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Rental> rentals;
+        if (cursor == null || cursor.isBlank()) {
+            rentals = rentalRepository.findFirstPage(
+                    filter.getMinPrice(), filter.getMaxPrice(),
+                    filter.getMinSurface(), filter.getMaxSurface(),
+                    filter.getOwnerId(), pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rentals = rentalRepository.findPageAfter(
+                    filter.getMinPrice(), filter.getMaxPrice(),
+                    filter.getMinSurface(), filter.getMaxSurface(),
+                    filter.getOwnerId(), position.getCreatedAt(), position.getId(), pageable);
+        }
+
+        boolean hasMore = rentals.size() > pageSize;
+        List<Rental> page = hasMore ? rentals.subList(0, pageSize) : rentals;
+        String nextCursor = null;
+        if (hasMore) {
+            Rental last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return RentalPageResponse.builder()
+                .rentals(rentalMapper.toResponseList(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Writes every rental as JSON directly to the given output stream, using the same
+     * {@code {"rentals": [...]}} shape as {@link #getAllRentals()}.
+     * Rows are read from a streaming result set, mapped and written one at a time, then detached
+     * from the persistence context, so memory use does not grow with the catalogue size.
+     *
+     * @param outputStream The stream to write the JSON document to.
+     * @throws IOException If writing to the output stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllRentals(OutputStream outputStream) throws IOException {
+        try (Stream<Rental> rentals = rentalRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("rentals");
+
+            Iterator<Rental> iterator = rentals.iterator();
+            while (iterator.hasNext()) {
+                Rental rental = iterator.next();
+                generator.writeObject(rentalMapper.toResponse(rental));
+                entityManager.detach(rental);
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Retrieves the current version of the whole catalogue, used to validate cached listings.
+     * Cached alongside the listing pages, so it is invalidated by the same writes.
+     *
+     * @return The number of rentals and the most recent update date.
+     */
+    @Cacheable(cacheNames = CacheConfig.RENTAL_PAGES, key = "'catalog-version'")
+    public RentalCatalogVersion getCatalogVersion() {
+        return rentalRepository.findCatalogVersion();
+    }
+
+    /**
+     * Retrieves a rental listing by its ID.
+     *
+     * @param id The ID of the rental.
+     * @return The rental details.
+     * @throws EntityNotFoundException If the rental does not exist.
+     */
+    @Cacheable(cacheNames = CacheConfig.RENTALS, key = "#id")
     public RentalResponse getRentalById(Long id) {
         Rental rental = rentalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Rental not found with id: " + id));
         return rentalMapper.toResponse(rental);
     }
 
+    /**
+     * Reloads a rental listing from the database and replaces its cached copy.
+     * Used when the cached copy is older than the row, after an update served by another instance.
+     *
+     * @param id The ID of the rental.
+     * @return The rental details.
+     * @throws EntityNotFoundException If the rental does not exist.
+     */
+    @CachePut(cacheNames = CacheConfig.RENTALS, key = "#id")
+    public RentalResponse reloadRental(Long id) {
+        Rental rental = rentalRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Rental not found with id: " + id));
+        return rentalMapper.toResponse(rental);
+    }
+
+    /**
+     * Reads the last update date of a rental from the database, bypassing the cache.
+     * This primary key lookup is the source of truth for the rental's validators.
+     *
+     * @param id The ID of the rental.
+     * @return The last update date of the rental.
+     * @throws EntityNotFoundException If the rental does not exist.
+     */
+    public LocalDateTime getRentalUpdatedAt(Long id) {
+        return rentalRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Rental not found with id: " + id));
+    }
+
     /**
      * Updates an existing rental listing.
      *
@@ -93,6 +240,10 @@ public class RentalService {
      * @return The updated rental object.
      * @throws IOException If there is an error saving the image.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RENTALS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.RENTAL_PAGES, allEntries = true)
+    })
     public GlobalMessageResponse updateRental(Long id, RentalRequest rentalRequest, MultipartFile picture) {
         try {
             Rental rental = rentalRepository.findById(id)
@@ -103,10 +254,10 @@ public class RentalService {
 
             // Handle picture separately since it requires file operations
             if (picture != null && !picture.isEmpty()) {
-                if (rental.getPicture() != null) {
-                    deleteImage(rental.getPicture());
-                }
+                String previousPicture = rental.getPicture();
                 updatedRental.setPicture(saveImage(picture));
+                // Only drop the previous picture once the new one is safely stored
+                deleteImage(previousPicture);
             }
 
             updatedRental.setUpdatedAt(LocalDateTime.now());
@@ -118,19 +269,25 @@ public class RentalService {
         }
     }
 
+    /**
+     * Stores a rental picture.
+     *
+     * @param file The uploaded picture.
+     * @return The public URL of the stored picture.
+     * @throws IOException If the picture cannot be stored.
+     */
     private String saveImage(MultipartFile file) throws IOException {
-        Files.createDirectories(Paths.get(uploadDir));
-        String fileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String uniqueFileName = System.currentTimeMillis() + "_" + fileName;
-        Path targetLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-        return uniqueFileName;
+        return pictureBaseUrl + fileService.store(file).getFileName();
     }
 
-    private void deleteImage(String fileName) throws IOException {
-        if (fileName != null && !fileName.isEmpty()) {
-            Path filePath = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(fileName);
-            Files.deleteIfExists(filePath);
+    /**
+     * Releases a rental picture; the file is deleted in the background once unreferenced.
+     *
+     * @param pictureUrl The public URL of the picture.
+     */
+    private void deleteImage(String pictureUrl) {
+        if (pictureUrl != null && !pictureUrl.isEmpty()) {
+            fileService.release(pictureUrl.substring(pictureUrl.lastIndexOf('/') + 1));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,246 @@
+package com.openclassrooms.chatop.service;
+
+import com.openclassrooms.chatop.config.StorageProperties;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage backend keeping files in a bucket of an S3-compatible object store.
+ * Large files are uploaded in parts read one at a time, so memory per upload stays bounded.
+ * Downloads can be redirected to presigned URLs so that file bytes never go through the application.
+ */
+public class S3BlobStorage implements BlobStorage {
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final StorageProperties.S3 properties;
+
+    public S3BlobStorage(S3Client s3Client, S3Presigner s3Presigner, StorageProperties.S3 properties) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.properties = properties;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size <= properties.getMultipartThreshold()) {
+                s3Client.putObject(request -> request
+                                .bucket(properties.getBucket())
+                                .key(key)
+                                .contentType(contentType)
+                                .contentLength(size),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, contentType);
+            }
+        } catch (SdkException ex) {
+            throw new IOException("Could not store file " + key, ex);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] content, String contentType) throws IOException {
+        try {
+            s3Client.putObject(request -> request
+                            .bucket(properties.getBucket())
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength((long) content.length),
+                    RequestBody.fromBytes(content));
+        } catch (SdkException ex) {
+            throw new IOException("Could not store file " + key, ex);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(request -> request.bucket(properties.getBucket()).key(key));
+        } catch (SdkException ex) {
+            throw new IOException("Could not delete file " + key, ex);
+        }
+    }
+
+    @Override
+    public Resource load(String key) throws IOException {
+        HeadObjectResponse head = head(key)
+                .orElseThrow(() -> new IOException("File not found: " + key));
+        return new S3ObjectResource(key, head);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<URI> presignedUrl(String key) throws IOException {
+        if (!properties.isPresignedRedirects()) {
+            return Optional.empty();
+        }
+        try {
+            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                    .signatureDuration(Duration.ofMillis(properties.getPresignedUrlTtl()))
+                    .getObjectRequest(request -> request.bucket(properties.getBucket()).key(key))
+                    .build();
+            return Optional.of(s3Presigner.presignGetObject(presignRequest).url().toURI());
+        } catch (SdkException | URISyntaxException ex) {
+            throw new IOException("Could not sign URL of file " + key, ex);
+        }
+    }
+
+    /**
+     * Uploads a file in parts. Only one part is held in memory at a time.
+     * The upload is aborted on failure so that no orphan parts are billed.
+     *
+     * @param key Key of the file.
+     * @param source Local file to upload.
+     * @param contentType MIME type of the content.
+     * @throws IOException If the file cannot be read.
+     */
+    private void putMultipart(String key, Path source, String contentType) throws IOException {
+        String bucket = properties.getBucket();
+        String uploadId = s3Client.createMultipartUpload(request -> request
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)).uploadId();
+
+        try (InputStream input = Files.newInputStream(source)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            while (true) {
+                byte[] chunk = input.readNBytes(properties.getPartSize());
+                if (chunk.length == 0) {
+                    break;
+                }
+                int partNumber = parts.size() + 1;
+                long partLength = chunk.length;
+                String eTag = s3Client.uploadPart(request -> request
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength(partLength),
+                        RequestBody.fromBytes(chunk)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+            }
+            s3Client.completeMultipartUpload(request -> request
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts)));
+        } catch (IOException | SdkException ex) {
+            s3Client.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            throw ex;
+        }
+    }
+
+    /**
+     * Retrieves the metadata of an object.
+     *
+     * @param key Key of the file.
+     * @return The object metadata, or empty if the object does not exist.
+     * @throws IOException If the storage cannot be reached.
+     */
+    private Optional<HeadObjectResponse> head(String key) throws IOException {
+        try {
+            return Optional.of(s3Client.headObject(request -> request.bucket(properties.getBucket()).key(key)));
+        } catch (NoSuchKeyException ex) {
+            return Optional.empty();
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not read file " + key, ex);
+        } catch (SdkException ex) {
+            throw new IOException("Could not read file " + key, ex);
+        }
+    }
+
+    /**
+     * Object of the bucket exposed as a Resource. Each call to getInputStream opens a new download;
+     * byte ranges are downloaded on their own with a ranged GetObject.
+     */
+    private final class S3ObjectResource extends AbstractResource implements RangedResource {
+
+        private final String key;
+        private final HeadObjectResponse head;
+
+        S3ObjectResource(String key, HeadObjectResponse head) {
+            this.key = key;
+            this.head = head;
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + properties.getBucket() + "/" + key + "]";
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(key.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return head.contentLength();
+        }
+
+        @Override
+        public long lastModified() {
+            return head.lastModified().toEpochMilli();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return s3Client.getObject(request -> request.bucket(properties.getBucket()).key(key));
+            } catch (SdkException ex) {
+                throw new IOException("Could not read file " + key, ex);
+            }
+        }
+
+        @Override
+        public InputStream getInputStream(long start, long end) throws IOException {
+            try {
+                return s3Client.getObject(request -> request
+                        .bucket(properties.getBucket())
+                        .key(key)
+                        .range("bytes=" + start + "-" + end));
+            } catch (SdkException ex) {
+                throw new IOException("Could not read file " + key, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.openclassrooms.chatop.service;
+
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.config.SlowQueryLogProperties;
+import com.openclassrooms.chatop.config.SlowQueryLogProperties.Redaction;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes statements slower than a threshold as one JSON object per line to the
+ * {@value #LOGGER_NAME} logger, which logback routes to an asynchronous file appender.
+ * The log is switched on and off, and its threshold changed, at runtime.
+ */
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+    public static final String LOGGER_NAME = "chatop.slow-query";
+
+    private static final Logger SLOW_QUERY_LOGGER = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Redaction redaction;
+
+    private volatile boolean enabled;
+    private volatile long thresholdNanos;
+
+    public SlowQueryLog(SlowQueryLogProperties slowQueryLogProperties) {
+        this.redaction = slowQueryLogProperties.getRedaction();
+        this.enabled = slowQueryLogProperties.isEnabled();
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryLogProperties.getThreshold());
+    }
+
+    /**
+     * Returns whether statements must be timed: the log is enabled and its logger is not turned off.
+     *
+     * @return true if statements must be timed.
+     */
+    public boolean isActive() {
+        return enabled && SLOW_QUERY_LOGGER.isInfoEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Switches the log on or off and sets its threshold. Connections borrowed afterwards follow the new setting.
+     *
+     * @param enabled Whether slow statements are logged.
+     * @param thresholdMillis Minimum duration of a logged statement, in milliseconds.
+     */
+    public void update(boolean enabled, long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.enabled = enabled;
+        log.info("Slow query log {}, threshold {} ms", enabled ? "enabled" : "disabled", thresholdMillis);
+    }
+
+    /**
+     * Logs a statement if it took at least the threshold.
+     *
+     * @param sql The statement.
+     * @param parameters The bind parameters, in index order. Only read during the call.
+     * @param batchSize The number of batched executions, 0 for a single execution.
+     * @param elapsedNanos The execution time.
+     * @param failed Whether the execution threw.
+     */
+    public void record(String sql, Collection<Object> parameters, int batchSize, long elapsedNanos, boolean failed) {
+        if (!enabled || elapsedNanos < thresholdNanos) {
+            return;
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("timestamp", Instant.now().toString());
+        entry.put("duration_ms", elapsedNanos / 1_000_000.0);
+        entry.put("threshold_ms", getThresholdMillis());
+        entry.put("sql", sql);
+        entry.put("parameters", redact(parameters));
+        if (batchSize > 0) {
+            entry.put("batch_size", batchSize);
+        }
+        entry.put("failed", failed);
+        entry.put("thread", Thread.currentThread().getName());
+        try {
+            SLOW_QUERY_LOGGER.info(objectMapper.writeValueAsString(entry));
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not write slow query entry: {}", ex.getMessage());
+        }
+    }
+
+    private List<Object> redact(Collection<Object> parameters) {
+        List<Object> redacted = new ArrayList<>(parameters.size());
+        for (Object value : parameters) {
+            redacted.add(redact(value));
+        }
+        return redacted;
+    }
+
+    private Object redact(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (redaction) {
+            case NONE -> value instanceof Number || value instanceof Boolean ? value : String.valueOf(value);
+            case TEXT -> {
+                if (value instanceof Number || value instanceof Boolean) {
+                    yield value;
+                }
+                yield value instanceof Temporal || value instanceof Date ? String.valueOf(value) : typeOf(value);
+            }
+            case ALL -> typeOf(value);
+        };
+    }
+
+    private static String typeOf(Object value) {
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.chatop.service;
+
+import com.openclassrooms.chatop.config.StorageProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Copies the files of the local upload directory to the configured storage backend at startup.
+ * Files keep their key (relative path), so existing picture URLs remain valid. Files already present
+ * in the backend are skipped, which makes the migration safe to run again after an interruption.
+ * Local files are left in place and can be removed once the migration is complete.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.migrate-on-startup", havingValue = "true")
+@Slf4j
+public class StorageMigrationRunner implements ApplicationRunner {
+
+    private final Path uploadLocation;
+    private final BlobStorage blobStorage;
+    private final FileService fileService;
+    private final StorageProperties storageProperties;
+
+    public StorageMigrationRunner(
+            @Value("${file.upload-dir}") String uploadDir,
+            BlobStorage blobStorage,
+            FileService fileService,
+            StorageProperties storageProperties) {
+        this.uploadLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.blobStorage = blobStorage;
+        this.fileService = fileService;
+        this.storageProperties = storageProperties;
+    }
+
+    /**
+     * Copies every file missing from the storage backend.
+     *
+     * @param args Application arguments (unused).
+     * @throws IOException If the upload directory cannot be listed.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (storageProperties.getType() == StorageProperties.StorageType.LOCAL) {
+            log.info("Files are already stored in {}, nothing to migrate", uploadLocation);
+            return;
+        }
+        if (!Files.isDirectory(uploadLocation)) {
+            log.info("No upload directory at {}, nothing to migrate", uploadLocation);
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(uploadLocation)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .toList();
+        }
+
+        int copied = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (Path file : files) {
+            String key = uploadLocation.relativize(file).toString().replace('\\', '/');
+            try {
+                if (blobStorage.exists(key)) {
+                    skipped++;
+                    continue;
+                }
+                blobStorage.put(key, file, fileService.getFileContentType(file.getFileName().toString()));
+                copied++;
+            } catch (IOException ex) {
+                failed++;
+                log.warn("Could not migrate file {}: {}", key, ex.getMessage());
+            }
+        }
+        log.info("Storage migration done: {} copied, {} already present, {} failed", copied, skipped, failed);
+    }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.chatop.service;
+
+import java.nio.file.Path;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * File durably written to the storage backend.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StoredFile {
+
+    /**
+     * Name of the file, from which its storage key is derived.
+     */
+    private final String fileName;
+
+    /**
+     * Local copy of the file, readable during post-processing.
+     * Null for content already stored in a remote storage.
+     */
+    private final Path path;
+
+    /**
+     * Hex-encoded SHA-256 hash of the file content.
+     */
+    private final String contentHash;
+
+    /**
+     * Size of the file in bytes.
+     */
+    private final long size;
+}
@@ -0,0 +1,14 @@
+package com.openclassrooms.chatop.service;
+
+/**
+ * Processing step run in the background once an uploaded file is durably stored.
+ */
+public interface UploadPostProcessor {
+
+    /**
+     * Processes a stored file. Runs on the file processing executor, never on the request thread.
+     *
+     * @param storedFile The stored file.
+     */
+    void process(StoredFile storedFile);
+}
@@ -0,0 +1,94 @@
+package com.openclassrooms.chatop.service;
+
+import java.util.Optional;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.chatop.config.CacheConfig;
+import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.repository.UserRepository;
+import com.openclassrooms.chatop.security.UserAccount;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service giving cached access to users.
+ * Account lookups by email and by ID are served from memory as immutable snapshots; every write evicts
+ * both entries of the user. Entity lookups, used by write paths, always read the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Finds the account of a user by email address.
+     *
+     * @param email The email to search for.
+     * @return Optional containing the account if found.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#email", unless = "#result == null")
+    public Optional<UserAccount> findAccountByEmail(String email) {
+        return userRepository.findByEmail(email).map(UserAccount::from);
+    }
+
+    /**
+     * Finds the account of a user by ID.
+     *
+     * @param id The user ID.
+     * @return Optional containing the account if found.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, key = "#id", unless = "#result == null")
+    public Optional<UserAccount> findAccountById(Long id) {
+        return userRepository.findById(id).map(UserAccount::from);
+    }
+
+    /**
+     * Saves a user and invalidates its cached entries.
+     *
+     * @param user The user to save.
+     * @return The saved user.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#user.email"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#result.id")
+    })
+    public User save(User user) {
+        return userRepository.save(user);
+    }
+
+    /**
+     * Replaces the password hash of a user, and invalidates its cached entries.
+     *
+     * @param account The account of the user.
+     * @param encodedPassword The new password hash.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#account.email"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#account.id")
+    })
+    public void updatePassword(UserAccount account, String encodedPassword) {
+        userRepository.updatePassword(account.id(), encodedPassword);
+    }
+
+    /**
+     * Revokes every token issued to a user by incrementing their token version,
+     * and invalidates its cached entries.
+     *
+     * @param account The account of the user whose tokens are revoked.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#account.email"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#account.id")
+    })
+    public void revokeTokens(UserAccount account) {
+        userRepository.incrementTokenVersion(account.id());
+    }
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.chatop.service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, which happens on Java 21 when a virtual
+ * thread blocks inside a synchronized block or a native frame (e.g. in a JDBC driver or a library
+ * lock). Pinned threads hold a carrier and can starve the whole virtual-thread scheduler.
+ * Listens to the JFR jdk.VirtualThreadPinned event in-process; each distinct stack is logged once,
+ * and every event is counted in the chatop.virtual.thread.pinned metric.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * Maximum number of distinct stacks remembered, so a pathological workload cannot grow the set forever.
+     */
+    private static final int MAX_REPORTED_STACKS = 1000;
+
+    private final RecordingStream recordingStream = new RecordingStream();
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private final Counter pinnedCounter;
+
+    public VirtualThreadPinningMonitor(@Value("${application.virtual-threads.pinning-threshold:20}") long thresholdMillis,
+                                       MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("chatop.virtual.thread.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+        recordingStream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        String stack = format(event.getStackTrace());
+        if (reportedStacks.size() < MAX_REPORTED_STACKS && reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), stack);
+        } else {
+            log.debug("Virtual thread pinned for {} ms", event.getDuration().toMillis());
+        }
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordingStream.close();
+    }
+}
@@ -0,0 +1,161 @@
+package com.openclassrooms.chatop.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.model.Message;
+import com.openclassrooms.chatop.model.Rental;
+import com.openclassrooms.chatop.model.Role;
+import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.repository.MessageRepository;
+import com.openclassrooms.chatop.repository.RentalRepository;
+import com.openclassrooms.chatop.repository.UserRepository;
+import com.openclassrooms.chatop.security.JwtService;
+import com.openclassrooms.chatop.security.UserAccount;
+import com.openclassrooms.chatop.service.UserService;
+import com.openclassrooms.chatop.support.QueryBudget;
+
+/**
+ * Guards the statement count of the message listings: a page is read with one projection query,
+ * whatever its size, without loading the senders or the rentals.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MessageControllerQueryBudgetTest {
+
+    private static final int MESSAGE_COUNT = 30;
+
+    private static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private Long rentalId;
+    private String ownerToken;
+    private String senderToken;
+
+    @BeforeEach
+    void seed() {
+        User owner = saveUser("Owner");
+        List<User> senders = List.of(saveUser("First sender"), saveUser("Second sender"), saveUser("Third sender"));
+
+        LocalDateTime timestamp = LocalDateTime.now();
+        rentalId = rentalRepository.save(Rental.builder()
+                .name("Flat by the river")
+                .surface(45)
+                .price(900)
+                .description("Two rooms with a view on the river.")
+                .ownerId(owner.getId())
+                .createdAt(timestamp)
+                .updatedAt(timestamp)
+                .build()).getId();
+
+        List<Message> messages = new ArrayList<>(MESSAGE_COUNT);
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            messages.add(Message.builder()
+                    .message("Is the flat still available? (" + i + ")")
+                    .user(User.builder().id(senders.get(i % senders.size()).getId()).build())
+                    .rental(Rental.builder().id(rentalId).build())
+                    .createdAt(timestamp.minusSeconds(i))
+                    .updatedAt(timestamp.minusSeconds(i))
+                    .build());
+        }
+        messageRepository.saveAll(messages);
+
+        ownerToken = jwtService.generateToken(UserAccount.from(owner));
+        senderToken = jwtService.generateToken(UserAccount.from(senders.get(0)));
+        // Warm the account cache, as any signed-in user would, so the token version check is free
+        userService.findAccountById(owner.getId());
+        userService.findAccountById(senders.get(0).getId());
+    }
+
+    @Test
+    @QueryBudget(statements = 2, lazyLoads = 0)
+    void threadPageIsReadWithOneQuery() throws Exception {
+        HttpResponse<String> response = get("/api/messages/rentals/" + rentalId + "?limit=" + PAGE_SIZE, ownerToken);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode page = objectMapper.readTree(response.body());
+        assertThat(page.get("messages")).hasSize(PAGE_SIZE);
+        assertThat(page.get("has_more").asBoolean()).isTrue();
+        assertThat(response.headers().firstValue(QuerySummaryAdvice.SUMMARY_HEADER))
+                .hasValueSatisfying(summary -> assertThat(summary).contains("duplicates=0", "lazy-loads=0"));
+    }
+
+    @Test
+    @QueryBudget(statements = 1, lazyLoads = 0)
+    void inboxPageIsReadWithOneQuery() throws Exception {
+        HttpResponse<String> response = get("/api/messages/inbox?limit=" + PAGE_SIZE, ownerToken);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).get("messages")).hasSize(PAGE_SIZE);
+    }
+
+    @Test
+    @QueryBudget(statements = 1, lazyLoads = 0)
+    void sentPageIsReadWithOneQuery() throws Exception {
+        HttpResponse<String> response = get("/api/messages/sent?limit=" + PAGE_SIZE, senderToken);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).get("messages")).hasSize(MESSAGE_COUNT / 3);
+    }
+
+    private User saveUser(String name) {
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@chatop.test")
+                .name(name)
+                .password("not-used")
+                .role(Role.USER)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,108 @@
+package com.openclassrooms.chatop.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.model.Role;
+import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.repository.UserRepository;
+import com.openclassrooms.chatop.security.JwtService;
+import com.openclassrooms.chatop.security.UserAccount;
+
+/**
+ * Checks that the message stream is opened with a single-use ticket, and no longer with a JWT in its URL.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MessageStreamTicketTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+        User user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@chatop.test")
+                .name("Stream user")
+                .password("not-used")
+                .role(Role.USER)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        token = jwtService.generateToken(UserAccount.from(user));
+    }
+
+    @Test
+    void ticketOpensTheStreamOnce() throws Exception {
+        HttpResponse<String> issued = httpClient.send(HttpRequest.newBuilder(uri("/api/messages/stream/ticket"))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(issued.statusCode()).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(issued.body());
+        assertThat(body.get("expires_in").asLong()).isEqualTo(30);
+        String ticket = body.get("ticket").asText();
+
+        assertThat(openStream("ticket=" + ticket)).isEqualTo(200);
+        assertThat(openStream("ticket=" + ticket)).isEqualTo(401);
+    }
+
+    @Test
+    void ticketIsIssuedToAuthenticatedUsersOnly() throws Exception {
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri("/api/messages/stream/ticket"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.discarding());
+
+        assertThat(response.statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    void tokenInTheUrlIsRejected() throws Exception {
+        assertThat(openStream("token=" + token)).isEqualTo(401);
+    }
+
+    private int openStream(String query) throws Exception {
+        HttpResponse<InputStream> response = httpClient.send(HttpRequest.newBuilder(uri("/api/messages/stream?" + query))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+        // The stream stays open: only the status line is needed
+        response.body().close();
+        return response.statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
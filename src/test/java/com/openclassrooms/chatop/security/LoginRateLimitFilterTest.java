@@ -0,0 +1,97 @@
+package com.openclassrooms.chatop.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.config.RateLimitProperties;
+import com.openclassrooms.chatop.service.InMemoryRateLimiter;
+import com.openclassrooms.chatop.service.LoginRateLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+/**
+ * Checks that login attempts over the limit of their IP address are answered with 429
+ * by the filter itself, so they never reach the user lookup or the password hashing.
+ */
+class LoginRateLimitFilterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+
+    private final FilterChain filterChain = mock(FilterChain.class);
+
+    private LoginRateLimitFilter filter() {
+        properties.setIp(new RateLimitProperties.Limit(2, 3_000));
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(new InMemoryRateLimiter(properties), properties);
+        return new LoginRateLimitFilter(loginRateLimiter, new ObjectMapper());
+    }
+
+    @Test
+    void attemptsOverTheLimitAreRejectedBeforeAuthentication() throws Exception {
+        LoginRateLimitFilter filter = filter();
+        filter.doFilter(login("10.0.0.1"), new MockHttpServletResponse(), filterChain);
+        filter.doFilter(login("10.0.0.1"), new MockHttpServletResponse(), filterChain);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.1"), rejected, filterChain);
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(rejected.getContentAsString()).isEqualTo("{\"error\":\"Too many attempts, please retry later\"}");
+        verify(filterChain, times(2)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    void otherAddressesAreNotLimited() throws Exception {
+        LoginRateLimitFilter filter = filter();
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(login("10.0.0.2"), new MockHttpServletResponse(), filterChain);
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.3"), response, filterChain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        verify(filterChain, times(3)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    void otherPathsAreNotLimited() throws Exception {
+        LoginRateLimitFilter filter = filter();
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rentals");
+            request.setRemoteAddr("10.0.0.4");
+            filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        }
+
+        verify(filterChain, times(5)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    void disabledLimitLetsEveryAttemptThrough() throws Exception {
+        LoginRateLimitFilter filter = filter();
+        properties.setEnabled(false);
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(login("10.0.0.5"), new MockHttpServletResponse(), filterChain);
+        }
+
+        verify(filterChain, times(5)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    private static MockHttpServletRequest login(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddress);
+        request.setContentType("application/json");
+        request.setContent("{\"email\":\"user@chatop.test\",\"password\":\"wrong\"}".getBytes());
+        return request;
+    }
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.chatop.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.chatop.config.RealtimeProperties;
+import com.openclassrooms.chatop.model.Role;
+
+/**
+ * Checks that stream tickets are unguessable, single-use and short-lived.
+ */
+class StreamTicketServiceTest {
+
+    private final AuthenticatedUser principal = new AuthenticatedUser(1L, "owner@chatop.test", Role.USER);
+
+    @Test
+    void ticketIsRedeemedOnlyOnce() {
+        StreamTicketService service = new StreamTicketService(new RealtimeProperties());
+        String ticket = service.issue(principal);
+
+        assertThat(service.redeem(ticket)).containsSame(principal);
+        assertThat(service.redeem(ticket)).isEmpty();
+    }
+
+    @Test
+    void ticketsAreRandom() {
+        StreamTicketService service = new StreamTicketService(new RealtimeProperties());
+
+        assertThat(service.issue(principal)).isNotEqualTo(service.issue(principal)).hasSize(43);
+    }
+
+    @Test
+    void unknownTicketIsRejected() {
+        StreamTicketService service = new StreamTicketService(new RealtimeProperties());
+
+        assertThat(service.redeem("not-a-ticket")).isEmpty();
+    }
+
+    @Test
+    void expiredTicketIsRejected() throws InterruptedException {
+        RealtimeProperties properties = new RealtimeProperties();
+        properties.setStreamTicketTtl(10);
+        StreamTicketService service = new StreamTicketService(properties);
+        String ticket = service.issue(principal);
+
+        Thread.sleep(50);
+
+        assertThat(service.redeem(ticket)).isEmpty();
+    }
+}
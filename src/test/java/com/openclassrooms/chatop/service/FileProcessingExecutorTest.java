@@ -0,0 +1,66 @@
+package com.openclassrooms.chatop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.chatop.exception.ServiceBusyException;
+
+/**
+ * Checks that a full processing queue rejects new tasks instead of running them on the caller.
+ */
+class FileProcessingExecutorTest {
+
+    private final FileProcessingExecutor executor = new FileProcessingExecutor(1, 1, false);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsTasksWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(this::awaitRelease);
+
+        boolean[] ran = new boolean[1];
+        assertThatThrownBy(() -> executor.submit(() -> ran[0] = true))
+                .isInstanceOf(ServiceBusyException.class);
+        assertThat(ran[0]).isFalse();
+    }
+
+    @Test
+    void runsQueuedTasksOnceAWorkerIsFree() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        executor.submit(() -> {
+            awaitRelease();
+            done.countDown();
+        });
+        executor.submit(done::countDown);
+
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
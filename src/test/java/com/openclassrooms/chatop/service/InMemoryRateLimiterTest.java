@@ -0,0 +1,73 @@
+package com.openclassrooms.chatop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.chatop.config.RateLimitProperties;
+
+/**
+ * Checks the token buckets of the in-memory rate limiter: a full bucket allows a burst of its
+ * capacity, then one attempt per refill interval.
+ */
+class InMemoryRateLimiterTest {
+
+    private static final RateLimitProperties.Limit LIMIT = new RateLimitProperties.Limit(3, 200);
+
+    private final InMemoryRateLimiter rateLimiter = new InMemoryRateLimiter(new RateLimitProperties());
+
+    @Test
+    void fullBucketAllowsABurstOfItsCapacity() {
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isFalse();
+    }
+
+    @Test
+    void emptyBucketRefillsOneTokenPerInterval() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("ip:10.0.0.2", LIMIT);
+        }
+
+        Thread.sleep(250);
+
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", LIMIT)).isFalse();
+    }
+
+    @Test
+    void bucketsAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("ip:10.0.0.3", LIMIT);
+        }
+
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.3", LIMIT)).isFalse();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.4", LIMIT)).isTrue();
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedTheCapacity() throws Exception {
+        RateLimitProperties.Limit slowRefill = new RateLimitProperties.Limit(5, 60_000);
+        Callable<Boolean> attempt = () -> rateLimiter.tryAcquire("email:target@chatop.test", slowRefill);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(attempt));
+            }
+        }
+
+        long allowed = 0;
+        for (Future<Boolean> result : results) {
+            allowed += result.get() ? 1 : 0;
+        }
+        assertThat(allowed).isEqualTo(5);
+    }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.chatop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.openclassrooms.chatop.config.RateLimitProperties;
+
+/**
+ * Checks the database token buckets against an embedded database in MySQL mode,
+ * including two first attempts racing to create the same bucket.
+ */
+class JdbcRateLimiterTest {
+
+    private static final RateLimitProperties.Limit LIMIT = new RateLimitProperties.Limit(3, 200);
+
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Set to a bucket key to insert that bucket right before the limiter does, as a concurrent first attempt would.
+     */
+    private volatile String racingKey;
+
+    private JdbcRateLimiter rateLimiter;
+
+    @BeforeEach
+    void createDatabase() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rate-limit-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public int update(String sql, Object... args) {
+                String key = racingKey;
+                if (key != null && sql.startsWith("INSERT IGNORE")) {
+                    racingKey = null;
+                    super.update("INSERT INTO rate_limit_buckets (bucket_key, full_at) VALUES (?, ?)",
+                            key, System.currentTimeMillis() + LIMIT.getRefillInterval());
+                }
+                return super.update(sql, args);
+            }
+        };
+        rateLimiter = new JdbcRateLimiter(jdbcTemplate);
+        rateLimiter.start();
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        rateLimiter.shutdown();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void fullBucketAllowsABurstOfItsCapacity() {
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1", LIMIT)).isFalse();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", LIMIT)).isTrue();
+    }
+
+    @Test
+    void emptyBucketRefillsOneTokenPerInterval() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("ip:10.0.0.3", LIMIT);
+        }
+
+        Thread.sleep(250);
+
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.3", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.3", LIMIT)).isFalse();
+    }
+
+    @Test
+    void firstAttemptLosingTheInsertRaceTakesATokenFromTheNewBucket() {
+        racingKey = "ip:10.0.0.4";
+
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.4", LIMIT)).isTrue();
+        // The racing attempt and the retried one took two of the three tokens
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.4", LIMIT)).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.4", LIMIT)).isFalse();
+    }
+
+    @Test
+    void concurrentFirstAttemptsNeverExceedTheCapacity() throws Exception {
+        RateLimitProperties.Limit slowRefill = new RateLimitProperties.Limit(3, 60_000);
+        Callable<Boolean> attempt = () -> rateLimiter.tryAcquire("email:target@chatop.test", slowRefill);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(attempt));
+            }
+        }
+
+        long allowed = 0;
+        for (Future<Boolean> result : results) {
+            allowed += result.get() ? 1 : 0;
+        }
+        assertThat(allowed).isEqualTo(3);
+    }
+}
@@ -0,0 +1,241 @@
+package com.openclassrooms.chatop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.openclassrooms.chatop.config.MessageIngestionProperties;
+import com.openclassrooms.chatop.dto.MessageRequest;
+import com.openclassrooms.chatop.exception.ServiceBusyException;
+import com.openclassrooms.chatop.mapper.MessageMapper;
+import com.openclassrooms.chatop.model.Message;
+import com.openclassrooms.chatop.model.Rental;
+import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.repository.MessageRepository;
+import com.openclassrooms.chatop.repository.RentalRepository;
+import com.openclassrooms.chatop.repository.UserRepository;
+
+/**
+ * Checks how the write-behind queue batches messages, isolates invalid ones, pushes back when full
+ * and drains at shutdown. The repository is stubbed; a gate holds the worker inside its first insert
+ * so that the following messages queue up behind it.
+ */
+class MessageWriteBehindQueueTest {
+
+    private static final long MISSING_RENTAL_ID = 404L;
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final MessageIngestionProperties properties = new MessageIngestionProperties();
+
+    /**
+     * Every list passed to insertAll, in call order.
+     */
+    private final List<List<Message>> inserts = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstInsertStarted = new CountDownLatch(1);
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private MessageWriteBehindQueue queue;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        gate.countDown();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void messagesQueuedDuringAWriteAreWrittenInOneBatch() throws Exception {
+        queue = startQueue(10, 200);
+        CompletableFuture<Message> first = submitAndHoldWorker();
+
+        List<CompletableFuture<Message>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(queue.submit(message(1L)));
+        }
+        gate.countDown();
+
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(first).isCompleted();
+        assertThat(inserts).extracting(List::size).containsExactly(1, 5);
+    }
+
+    @Test
+    void batchesAreSplitAtTheBatchSize() throws Exception {
+        queue = startQueue(10, 2);
+        submitAndHoldWorker();
+
+        List<CompletableFuture<Message>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(queue.submit(message(1L)));
+        }
+        gate.countDown();
+
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(inserts).extracting(List::size).containsExactly(1, 2, 2, 1);
+    }
+
+    @Test
+    void batchWithAMissingRentalIsReplayedMessageByMessage() throws Exception {
+        queue = startQueue(10, 200);
+        submitAndHoldWorker();
+
+        CompletableFuture<Message> valid = queue.submit(message(1L));
+        CompletableFuture<Message> invalid = queue.submit(message(MISSING_RENTAL_ID));
+        CompletableFuture<Message> alsoValid = queue.submit(message(2L));
+        gate.countDown();
+
+        assertThat(valid.get(5, TimeUnit.SECONDS).getRental().getId()).isEqualTo(1L);
+        assertThat(alsoValid.get(5, TimeUnit.SECONDS).getRental().getId()).isEqualTo(2L);
+        assertThatThrownBy(() -> invalid.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        // The held message, the failed batch of three, then one insert per message
+        assertThat(inserts).extracting(List::size).containsExactly(1, 3, 1, 1, 1);
+    }
+
+    @Test
+    void fullQueueRejectsMessages() throws Exception {
+        queue = startQueue(2, 200);
+        submitAndHoldWorker();
+        queue.submit(message(1L));
+        queue.submit(message(1L));
+
+        assertThatThrownBy(() -> queue.submit(message(1L)))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessage("Too many messages are being sent, please retry");
+    }
+
+    @Test
+    void waitForFlushTimesOutWhileTheMessageStaysQueued() throws Exception {
+        queue = startQueue(10, 200);
+        submitAndHoldWorker();
+        properties.setMode(MessageIngestionProperties.Mode.WAIT_FOR_FLUSH);
+        properties.setFlushTimeout(50);
+        MessageService messageService = messageService();
+
+        assertThatThrownBy(() -> messageService.createMessage(new MessageRequest("Still available?", 7L, 1L)))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessage("Message was not confirmed in time, please check before retrying");
+
+        gate.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inserts.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(inserts).hasSize(2);
+        assertThat(inserts.get(1).get(0).getMessage()).isEqualTo("Still available?");
+    }
+
+    @Test
+    void shutdownWritesTheQueuedMessages() throws Exception {
+        queue = startQueue(10, 200);
+        submitAndHoldWorker();
+        CompletableFuture<Message> queued = queue.submit(message(1L));
+
+        Thread shutdown = Thread.ofPlatform().start(() -> {
+            try {
+                queue.shutdown();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!rejectsNewMessages() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        gate.countDown();
+        shutdown.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(shutdown.isAlive()).isFalse();
+        assertThat(queued).isCompletedWithValueMatching(message -> message.getRental().getId() == 1L);
+        assertThatThrownBy(() -> queue.submit(message(1L)))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessage("Server is shutting down, please retry");
+    }
+
+    private MessageWriteBehindQueue startQueue(int queueCapacity, int batchSize) {
+        properties.setQueueCapacity(queueCapacity);
+        properties.setBatchSize(batchSize);
+        when(messageRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = List.copyOf(invocation.getArgument(0));
+            inserts.add(messages);
+            if (inserts.size() == 1) {
+                firstInsertStarted.countDown();
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            if (messages.stream().anyMatch(message -> message.getRental().getId() == MISSING_RENTAL_ID)) {
+                throw new DataIntegrityViolationException("Cannot add or update a child row: a foreign key constraint fails");
+            }
+            return messages.size();
+        });
+        return new MessageWriteBehindQueue(messageRepository, new MessageMapper(), transactionTemplate(), eventPublisher, properties);
+    }
+
+    /**
+     * Submits a message and waits until the worker is blocked writing it.
+     */
+    private CompletableFuture<Message> submitAndHoldWorker() throws InterruptedException {
+        CompletableFuture<Message> first = queue.submit(message(1L));
+        assertThat(firstInsertStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        return first;
+    }
+
+    private boolean rejectsNewMessages() {
+        try {
+            queue.submit(message(1L)).cancel(false);
+            return false;
+        } catch (ServiceBusyException ex) {
+            return true;
+        }
+    }
+
+    private MessageService messageService() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.getReferenceById(7L)).thenReturn(User.builder().id(7L).build());
+        RentalRepository rentalRepository = mock(RentalRepository.class);
+        when(rentalRepository.getReferenceById(1L)).thenReturn(Rental.builder().id(1L).build());
+        AuthService authService = mock(AuthService.class);
+        when(authService.getCurrentUserId()).thenReturn(7L);
+        return new MessageService(messageRepository, rentalRepository, userRepository, new MessageMapper(),
+                null, authService, eventPublisher, queue, properties);
+    }
+
+    private static Message message(Long rentalId) {
+        LocalDateTime now = LocalDateTime.now();
+        return Message.builder()
+                .message("Is the flat still available?")
+                .user(User.builder().id(7L).build())
+                .rental(Rental.builder().id(rentalId).build())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static TransactionTemplate transactionTemplate() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new TransactionTemplate(transactionManager);
+    }
+}
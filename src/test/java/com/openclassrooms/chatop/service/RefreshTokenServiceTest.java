@@ -0,0 +1,120 @@
+package com.openclassrooms.chatop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.chatop.config.JwtProperties;
+
+/**
+ * Checks the rotation of refresh tokens against the embedded database: each token is consumed once,
+ * a reused token revokes its whole family, and expired tokens are refused then swept.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    private long expiration;
+
+    @BeforeEach
+    void saveExpiration() {
+        expiration = jwtProperties.getRefreshToken().getExpiration();
+    }
+
+    @AfterEach
+    void restoreExpiration() {
+        jwtProperties.getRefreshToken().setExpiration(expiration);
+    }
+
+    @Test
+    void rotationConsumesTheTokenAndIssuesTheNextOne() {
+        String token = refreshTokenService.issue(USER_ID);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+        assertThat(rotation.userId()).isEqualTo(USER_ID);
+        assertThat(rotation.refreshToken()).isNotEqualTo(token);
+        assertThat(refreshTokenService.rotate(rotation.refreshToken()).userId()).isEqualTo(USER_ID);
+    }
+
+    @Test
+    void reusedTokenRevokesItsWholeFamily() {
+        String token = refreshTokenService.issue(USER_ID);
+        String next = refreshTokenService.rotate(token).refreshToken();
+        String otherLogin = refreshTokenService.issue(USER_ID);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token already used");
+        assertThatThrownBy(() -> refreshTokenService.rotate(next))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid refresh token");
+        assertThat(refreshTokenService.rotate(otherLogin).userId()).isEqualTo(USER_ID);
+    }
+
+    @Test
+    void expiredTokenIsRefused() throws InterruptedException {
+        String token = issueExpired();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token expired");
+    }
+
+    @Test
+    void unknownTokenIsRefused() {
+        assertThatThrownBy(() -> refreshTokenService.rotate("not-a-refresh-token"))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void sweepDeletesExpiredTokensOnly() throws InterruptedException {
+        String expired = issueExpired();
+        String used = refreshTokenService.issue(USER_ID);
+        refreshTokenService.rotate(used);
+
+        ReflectionTestUtils.invokeMethod(refreshTokenService, "sweep");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(expired))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid refresh token");
+        // Used tokens are kept until they expire, so their reuse is still detected
+        assertThatThrownBy(() -> refreshTokenService.rotate(used))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token already used");
+    }
+
+    @Test
+    void sweepKeepsLiveTokens() {
+        String live = refreshTokenService.issue(USER_ID);
+
+        ReflectionTestUtils.invokeMethod(refreshTokenService, "sweep");
+
+        assertThat(refreshTokenService.rotate(live).userId()).isEqualTo(USER_ID);
+    }
+
+    private String issueExpired() throws InterruptedException {
+        jwtProperties.getRefreshToken().setExpiration(50);
+        String token = refreshTokenService.issue(USER_ID);
+        jwtProperties.getRefreshToken().setExpiration(expiration);
+        Thread.sleep(100);
+        return token;
+    }
+}
@@ -0,0 +1,177 @@
+package com.openclassrooms.chatop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.openclassrooms.chatop.config.StorageProperties;
+import com.openclassrooms.chatop.support.InMemoryS3Client;
+
+/**
+ * Runs the S3 storage backend against an in-process bucket: uploads, ranged downloads,
+ * presigned redirects, deletions and the migration of the upload directory.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "file.storage.type=s3",
+        "file.storage.s3.endpoint=http://localhost:9000",
+        "file.storage.s3.bucket=" + S3BlobStorageIntegrationTest.BUCKET,
+        "file.storage.s3.access-key=chatop",
+        "file.storage.s3.secret-key=chatop-secret",
+        "file.storage.s3.multipart-threshold=1024",
+        "file.storage.s3.part-size=512"
+})
+@ActiveProfiles("test")
+@Import(S3BlobStorageIntegrationTest.InMemoryS3Configuration.class)
+class S3BlobStorageIntegrationTest {
+
+    static final String BUCKET = "chatop-test";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private InMemoryS3Client s3Client;
+
+    @Autowired
+    private BlobStorage blobStorage;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private StorageProperties storageProperties;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+
+    @AfterEach
+    void restoreRedirects() {
+        storageProperties.getS3().setPresignedRedirects(true);
+    }
+
+    @Test
+    void uploadsAreStoredInTheBucket() throws Exception {
+        byte[] content = randomContent(100);
+
+        StoredFile stored = fileService.store(new MockMultipartFile("picture", "plan.pdf", "application/pdf", content));
+
+        assertThat(s3Client.content(BUCKET, fileService.storageKey(stored.getFileName()))).isEqualTo(content);
+        assertThat(blobStorage.exists(fileService.storageKey(stored.getFileName()))).isTrue();
+    }
+
+    @Test
+    void largeUploadsAreSentInParts() throws Exception {
+        byte[] content = randomContent(3000);
+
+        StoredFile stored = fileService.store(new MockMultipartFile("picture", "plan.pdf", "application/pdf", content));
+
+        assertThat(s3Client.content(BUCKET, fileService.storageKey(stored.getFileName()))).isEqualTo(content);
+        assertThat(s3Client.pendingMultipartUploads()).isZero();
+    }
+
+    @Test
+    void rangeRequestsDownloadOnlyTheRequestedBytes() throws Exception {
+        storageProperties.getS3().setPresignedRedirects(false);
+        byte[] content = randomContent(100);
+        StoredFile stored = fileService.store(new MockMultipartFile("picture", "plan.pdf", "application/pdf", content));
+
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(uploadUri(stored.getFileName()))
+                .header("Range", "bytes=10-19")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(206);
+        assertThat(response.headers().firstValue("Content-Range")).hasValue("bytes 10-19/100");
+        assertThat(response.body()).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+        assertThat(s3Client.getRequests()).last()
+                .satisfies(request -> assertThat(request.range()).isEqualTo("bytes=10-19"));
+    }
+
+    @Test
+    void downloadsAreRedirectedToPresignedUrls() throws Exception {
+        StoredFile stored = fileService.store(new MockMultipartFile("picture", "plan.pdf", "application/pdf", randomContent(100)));
+
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uploadUri(stored.getFileName())).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertThat(response.statusCode()).isEqualTo(302);
+        assertThat(response.headers().firstValue("Cache-Control")).hasValue("no-store");
+        URI location = URI.create(response.headers().firstValue("Location").orElseThrow());
+        assertThat(location.getAuthority()).isEqualTo("localhost:9000");
+        assertThat(location.getPath()).isEqualTo("/" + BUCKET + "/" + fileService.storageKey(stored.getFileName()));
+        assertThat(location.getQuery()).contains("X-Amz-Signature=", "X-Amz-Expires=900");
+    }
+
+    @Test
+    void releasedUploadsAreDeletedFromTheBucket() throws Exception {
+        StoredFile stored = fileService.store(new MockMultipartFile("picture", "plan.pdf", "application/pdf", randomContent(100)));
+        String key = fileService.storageKey(stored.getFileName());
+
+        fileService.release(stored.getFileName());
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (s3Client.content(BUCKET, key) != null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(s3Client.content(BUCKET, key)).isNull();
+    }
+
+    @Test
+    void migrationCopiesTheLocalFilesMissingFromTheBucket(@TempDir Path uploadDir) throws Exception {
+        byte[] legacy = "legacy picture".getBytes(StandardCharsets.UTF_8);
+        Files.write(uploadDir.resolve("legacy.jpg"), legacy);
+        Path existing = Files.createDirectories(uploadDir.resolve("ab/cd")).resolve("existing.jpg");
+        Files.writeString(existing, "local copy");
+        blobStorage.put("ab/cd/existing.jpg", "bucket copy".getBytes(StandardCharsets.UTF_8), "image/jpeg");
+        Files.writeString(uploadDir.resolve(".hidden"), "not migrated");
+
+        new StorageMigrationRunner(uploadDir.toString(), blobStorage, fileService, storageProperties).run(null);
+
+        assertThat(s3Client.content(BUCKET, "legacy.jpg")).isEqualTo(legacy);
+        assertThat(new String(s3Client.content(BUCKET, "ab/cd/existing.jpg"), StandardCharsets.UTF_8)).isEqualTo("bucket copy");
+        assertThat(s3Client.content(BUCKET, ".hidden")).isNull();
+    }
+
+    private URI uploadUri(String fileName) {
+        return URI.create("http://localhost:" + port + "/uploads/" + fileName);
+    }
+
+    private static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        byte[] seed = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (seed[i % seed.length] + i);
+        }
+        return content;
+    }
+
+    @TestConfiguration
+    static class InMemoryS3Configuration {
+
+        @Bean
+        @Primary
+        InMemoryS3Client inMemoryS3Client() {
+            return new InMemoryS3Client();
+        }
+    }
+}
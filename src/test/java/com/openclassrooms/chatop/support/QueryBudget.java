@@ -0,0 +1,40 @@
+package com.openclassrooms.chatop.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Fails a Spring Boot test whose test method runs more Hibernate statements, duplicate statements
+ * or lazy loads than declared. Statements of every thread are counted, so requests sent to the
+ * embedded server are included; the @BeforeEach and @AfterEach methods are not.
+ * Requires {@code application.query-inspection.enabled=true} in the test context.
+ * <p>
+ * On a class, applies to every test method that does not declare its own budget.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /**
+     * Maximum number of statements.
+     */
+    int statements() default Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of statements repeating an earlier one. None by default: a repeated
+     * statement is usually an N+1.
+     */
+    int duplicates() default 0;
+
+    /**
+     * Maximum number of lazily loaded entities and collections.
+     */
+    int lazyLoads() default Integer.MAX_VALUE;
+}
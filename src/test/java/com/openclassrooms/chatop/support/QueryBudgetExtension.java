@@ -0,0 +1,70 @@
+package com.openclassrooms.chatop.support;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.openclassrooms.chatop.service.QueryInspector;
+import com.openclassrooms.chatop.service.QueryStatistics;
+
+/**
+ * Counts the statements of each test method annotated with {@link QueryBudget}, or of a class
+ * annotated with it, and fails the test when the budget is exceeded.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (findBudget(context).isEmpty()) {
+            return;
+        }
+        QueryInspector queryInspector = SpringExtension.getApplicationContext(context)
+                .getBeanProvider(QueryInspector.class)
+                .getIfAvailable();
+        if (queryInspector == null) {
+            fail("@QueryBudget needs application.query-inspection.enabled=true in the test context");
+        }
+        context.getStore(NAMESPACE).put(QueryInspector.class, queryInspector);
+        context.getStore(NAMESPACE).put(QueryStatistics.class, queryInspector.openGlobalScope());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryInspector queryInspector = context.getStore(NAMESPACE).remove(QueryInspector.class, QueryInspector.class);
+        QueryStatistics statistics = context.getStore(NAMESPACE).remove(QueryStatistics.class, QueryStatistics.class);
+        if (queryInspector == null || statistics == null) {
+            return;
+        }
+        queryInspector.closeGlobalScope(statistics);
+
+        QueryBudget budget = findBudget(context).orElseThrow();
+        List<String> exceeded = new ArrayList<>();
+        if (statistics.getStatementCount() > budget.statements()) {
+            exceeded.add(statistics.getStatementCount() + " statements (budget " + budget.statements() + ")");
+        }
+        if (statistics.getDuplicateCount() > budget.duplicates()) {
+            exceeded.add(statistics.getDuplicateCount() + " duplicate statements (budget " + budget.duplicates() + ")");
+        }
+        if (statistics.getLazyLoadCount() > budget.lazyLoads()) {
+            exceeded.add(statistics.getLazyLoadCount() + " lazy loads (budget " + budget.lazyLoads() + ")");
+        }
+        if (!exceeded.isEmpty()) {
+            fail("Query budget exceeded: " + String.join(", ", exceeded) + "\n" + statistics.report());
+        }
+    }
+
+    private static Optional<QueryBudget> findBudget(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class));
+    }
+}
@@ -0,0 +1,182 @@
+package com.openclassrooms.chatop.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.openclassrooms.chatop.model.Message;
+import com.openclassrooms.chatop.model.Rental;
+import com.openclassrooms.chatop.model.Role;
+import com.openclassrooms.chatop.model.User;
+import com.openclassrooms.chatop.repository.MessageRepository;
+import com.openclassrooms.chatop.repository.RentalRepository;
+import com.openclassrooms.chatop.repository.UserRepository;
+import com.openclassrooms.chatop.security.JwtService;
+import com.openclassrooms.chatop.security.UserAccount;
+import com.openclassrooms.chatop.service.UserService;
+
+/**
+ * Runs fixture classes that break their {@link QueryBudget} through the JUnit launcher and checks
+ * that they fail. The fixtures are nested classes, which Surefire does not run on their own.
+ */
+class QueryBudgetExtensionTest {
+
+    @Test
+    void statementsSentByTheEmbeddedServerCountAgainstTheBudget() {
+        TestExecutionSummary summary = run(ServerStatementsFixture.class);
+
+        assertThat(summary.getTestsSucceededCount()).isEqualTo(1);
+        assertThat(summary.getTestsFailedCount()).isEqualTo(1);
+        assertThat(summary.getFailures().get(0).getException())
+                .hasMessageStartingWith("Query budget exceeded: ")
+                .hasMessageContaining("(budget 0)");
+    }
+
+    @Test
+    void lazyLoadsCountAgainstTheBudget() {
+        TestExecutionSummary summary = run(LazyLoadFixture.class);
+
+        assertThat(summary.getTestsFailedCount()).isEqualTo(1);
+        assertThat(summary.getFailures().get(0).getException())
+                .hasMessageStartingWith("Query budget exceeded: 1 lazy loads (budget 0)")
+                .hasMessageContaining("lazy load of " + User.class.getName());
+    }
+
+    private static TestExecutionSummary run(Class<?> fixture) {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(request().selectors(selectClass(fixture)).build(), listener);
+        return listener.getSummary();
+    }
+
+    private static User saveUser(UserRepository userRepository) {
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@chatop.test")
+                .name("Fixture user")
+                .password("not-used")
+                .role(Role.USER)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    /**
+     * Lists the inbox over HTTP: the test thread runs no statement, the server thread does.
+     */
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @ActiveProfiles("test")
+    static class ServerStatementsFixture {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private JwtService jwtService;
+
+        private String token;
+
+        @BeforeEach
+        void signIn() {
+            User user = saveUser(userRepository);
+            token = jwtService.generateToken(UserAccount.from(user));
+            userService.findAccountById(user.getId());
+        }
+
+        @Test
+        @QueryBudget(statements = 0)
+        void overBudget() throws Exception {
+            assertThat(getInbox()).isEqualTo(200);
+        }
+
+        @Test
+        @QueryBudget(statements = 1)
+        void withinBudget() throws Exception {
+            assertThat(getInbox()).isEqualTo(200);
+        }
+
+        private int getInbox() throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/messages/inbox"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    /**
+     * Reads the sender of a message through its lazy association.
+     */
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @ActiveProfiles("test")
+    static class LazyLoadFixture {
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private RentalRepository rentalRepository;
+
+        @Autowired
+        private MessageRepository messageRepository;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        private Long messageId;
+
+        @BeforeEach
+        void saveMessage() {
+            User sender = saveUser(userRepository);
+            LocalDateTime timestamp = LocalDateTime.now();
+            Rental rental = rentalRepository.save(Rental.builder()
+                    .name("Fixture rental")
+                    .surface(20)
+                    .price(500)
+                    .description("A rental used by the query budget fixtures.")
+                    .ownerId(sender.getId())
+                    .createdAt(timestamp)
+                    .updatedAt(timestamp)
+                    .build());
+            messageId = messageRepository.save(Message.builder()
+                    .message("Hello")
+                    .user(sender)
+                    .rental(rental)
+                    .createdAt(timestamp)
+                    .updatedAt(timestamp)
+                    .build()).getId();
+        }
+
+        @Test
+        @QueryBudget(lazyLoads = 0)
+        void overBudget() {
+            String senderName = transactionTemplate.execute(status ->
+                    messageRepository.findById(messageId).orElseThrow().getUser().getName());
+            assertThat(senderName).isEqualTo("Fixture user");
+        }
+    }
+}